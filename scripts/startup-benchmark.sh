@@ -0,0 +1,99 @@
+#!/bin/bash
+# Measures time from JVM launch to the first successful request for the plain jar, the AOT-processed
+# application and AOT plus a class data sharing (CDS) archive.
+#
+# Usage: ./scripts/startup-benchmark.sh [runs]
+#
+# The application needs its database: start it with ./scripts/run-db.sh and point the application at it, e.g.
+#   APP_ARGS="--spring.datasource.url=jdbc:postgresql://localhost:5432/development" ./scripts/startup-benchmark.sh 5
+# Environment:
+#   APP_ARGS         arguments passed to the application
+#   JAVA_OPTS        extra JVM options for every run
+#   EXTRA_CLASSPATH  jars appended to the class path (e.g. another JDBC driver)
+#   SKIP_BUILD=1     reuse target/parking-control-*.jar built with -Paot
+#   URL              request that has to succeed (default: first page of parking spots, which hits the database)
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-8000}
+URL=${URL:-http://localhost:$PORT/parking-spot?size=1}
+WORK_DIR=target/startup
+MAIN_CLASS=com.api.parkingcontrol.ParkingControlApplication
+TIMEOUT_SECONDS=120
+
+if [ "${SKIP_BUILD:-0}" != "1" ]; then
+  ./mvnw -B -q -Paot -DskipTests package
+fi
+
+# CDS only archives classes loaded from plain jars on the class path, neither from the nested jars of the fat
+# jar nor from directories, so the application classes are repackaged into a jar of their own
+JAR=$(ls target/parking-control-*.jar | grep -v '\.original$' | head -n 1)
+rm -rf "$WORK_DIR"
+mkdir -p "$WORK_DIR/app"
+(cd "$WORK_DIR/app" && jar -xf "../../../$JAR")
+jar -cf "$WORK_DIR/app/application.jar" -C "$WORK_DIR/app/BOOT-INF/classes" .
+CLASSPATH="$WORK_DIR/app/application.jar"
+for lib in "$WORK_DIR"/app/BOOT-INF/lib/*.jar; do
+  CLASSPATH="$CLASSPATH:$lib"
+done
+if [ -n "${EXTRA_CLASSPATH:-}" ]; then
+  CLASSPATH="$CLASSPATH:$EXTRA_CLASSPATH"
+fi
+ARCHIVE="$WORK_DIR/app.jsa"
+
+now_ms() {
+  date +%s%3N
+}
+
+# Starts the application with the given JVM options, prints the milliseconds until $URL answers 2xx and stops it
+measure() {
+  local start pid elapsed
+  start=$(now_ms)
+  # shellcheck disable=SC2086
+  java ${JAVA_OPTS:-} "$@" -cp "$CLASSPATH" "$MAIN_CLASS" --server.port="$PORT" ${APP_ARGS:-} > "$WORK_DIR/app.log" 2>&1 &
+  pid=$!
+  until curl -fs -o /dev/null "$URL"; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "Application exited before answering, see $WORK_DIR/app.log" >&2
+      exit 1
+    fi
+    if [ $(( $(now_ms) - start )) -gt $(( TIMEOUT_SECONDS * 1000 )) ]; then
+      kill "$pid"
+      echo "No successful response from $URL after ${TIMEOUT_SECONDS}s, see $WORK_DIR/app.log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  elapsed=$(( $(now_ms) - start ))
+  # A graceful stop, so a training run writes its archive
+  kill -TERM "$pid"
+  wait "$pid" || true
+  echo "$elapsed"
+}
+
+report() {
+  local name=$1
+  shift
+  local times=()
+  for _ in $(seq "$RUNS"); do
+    times+=("$(measure "$@")")
+  done
+  local sorted
+  sorted=$(printf '%s\n' "${times[@]}" | sort -n)
+  printf '%-10s min %6d ms   median %6d ms   max %6d ms\n' "$name" \
+    "$(echo "$sorted" | head -n 1)" \
+    "$(echo "$sorted" | sed -n "$(( (RUNS + 1) / 2 ))p")" \
+    "$(echo "$sorted" | tail -n 1)"
+}
+
+# Training run: the archive holds every class loaded up to the first request
+echo "Training CDS archive $ARCHIVE"
+measure -Dspring.aot.enabled=true -XX:ArchiveClassesAtExit="$ARCHIVE" > /dev/null
+
+echo "Time to first successful request over $RUNS runs ($URL):"
+report "jvm" -Dspring.aot.enabled=false
+report "aot" -Dspring.aot.enabled=true
+report "aot+cds" -Dspring.aot.enabled=true -XX:SharedArchiveFile="$ARCHIVE"
@@ -0,0 +1,80 @@
+package com.api.parkingcontrol.benchmarks;
+
+import com.api.parkingcontrol.ParkingControlApplication;
+import com.api.parkingcontrol.entities.ParkingSpot;
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Boots the application against an in-memory H2 database for benchmarks.
+public final class BenchmarkApplication {
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    // Starts the embedded web server on a random port, read back through local.server.port
+    public static ConfigurableApplicationContext startServer(String... properties) {
+        return start(WebApplicationType.SERVLET, Stream.concat(Stream.of("server.port=0"), Stream.of(properties)).toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        // A fresh database per context: the Flyway-managed schema outlives the context, unlike create-drop
+        String[] defaults = {
+            "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "logging.level.root=WARN"
+        };
+        // Passed as command line arguments so they override application.properties. A repeated argument would be
+        // read as a comma-separated list, so defaults that are overridden are left out.
+        Set<String> overridden = Stream.of(properties).map(BenchmarkApplication::key).collect(Collectors.toSet());
+        String[] args = Stream.concat(Stream.of(defaults).filter(property -> !overridden.contains(key(property))), Stream.of(properties))
+            .map(property -> "--" + property)
+            .toArray(String[]::new);
+        // DevTools only honours this as a system property; its restart classloader would skew measurements
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(ParkingControlApplication.class)
+            .web(webApplicationType)
+            .run(args);
+    }
+
+    private static String key(String property) {
+        return property.substring(0, property.indexOf('='));
+    }
+
+    public static List<ParkingSpot> seed(ParkingSpotRepository parkingSpotRepository, int count) {
+        List<ParkingSpot> parkingSpots = new ArrayList<>(count);
+        LocalDateTime registrationDate = LocalDateTime.now(ZoneId.of("UTC"));
+        for (int i = 0; i < count; i++) {
+            parkingSpots.add(parkingSpot(i, registrationDate.minusSeconds(i)));
+        }
+        return parkingSpotRepository.saveAll(parkingSpots);
+    }
+
+    public static ParkingSpot parkingSpot(int i, LocalDateTime registrationDate) {
+        var parkingSpot = new ParkingSpot();
+        parkingSpot.setParkingSpotNumber(String.valueOf(i));
+        parkingSpot.setLicensePlateCar(String.format("BM%05d", i));
+        parkingSpot.setBrandCar("Audi");
+        parkingSpot.setModelCar("Q5");
+        parkingSpot.setColorCar("Black");
+        parkingSpot.setResponsibleName("Benchmark " + i);
+        parkingSpot.setApartment(String.valueOf(i));
+        parkingSpot.setBlock(String.valueOf(i % 20));
+        parkingSpot.setRegistrationDate(registrationDate);
+        return parkingSpot;
+    }
+}
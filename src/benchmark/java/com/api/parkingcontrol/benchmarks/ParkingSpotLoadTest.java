@@ -0,0 +1,387 @@
+package com.api.parkingcontrol.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Closed-loop HTTP load against /parking-spot with a weighted mix of operations, comparing platform and virtual
+// thread request handling. Every worker owns the parking spots it registers, plus its share of the seeded ones,
+// and looks them up, pages, updates, deletes and re-registers them (or collides with them) as fast as responses
+// allow. Results are printed per mode and operation and written as JSON, which later runs can be gated on.
+//
+//   mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.api.parkingcontrol.benchmarks.ParkingSpotLoadTest \
+//       -Dbenchmark.args="concurrency=200 duration=30s modes=platform,virtual"
+//
+// Options (key=value):
+//   concurrency, duration, warmup     closed-loop workers and run lengths (64, 20s, 5s)
+//   mix                               operation weights (lookup=50,page=20,save=10,conflict=5,update=10,delete=5)
+//   seed                              parking spots registered before each mode runs (1000)
+//   modes                             platform,virtual: boots the application on a fresh H2 database per mode;
+//                                     virtual fails the run on JVMs older than 21
+//   jdbcUrl, jdbcUser, jdbcPassword   boots it against another database instead, e.g. the one from scripts/run-db.sh
+//   baseUrl                           drives an already running instance instead of booting one
+//   admission=true                    turns admission control on; off by default to measure the server at saturation
+//   output                            JSON results (target/load-test-result.json)
+//   baseline, tolerance               compares with an earlier output and exits with 1 when an operation's throughput
+//                                     drops or its p99 grows by more than tolerance (0.2), or its error rate grows
+//                                     by more than one percentage point
+public class ParkingSpotLoadTest implements AutoCloseable {
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+    private static final String DEFAULT_MIX = "lookup=50,page=20,save=10,conflict=5,update=10,delete=5";
+    private static final int SEED_BATCH_SIZE = 500;
+    // Keys are 6 base 36 digits; each run starts at a random offset so reruns against the same database rarely collide
+    private static final long KEY_SPACE = 2_176_782_336L;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    enum Operation {
+        LOOKUP, PAGE, SAVE, CONFLICT, UPDATE, DELETE;
+
+        String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    // A parking spot registered by the load test: the key makes its plate, number and apartment unique
+    private record Registration(UUID id, long key) {
+    }
+
+    private record Worker(Map<Operation, Recorder> recorders, List<Registration> owned) {
+    }
+
+    private final ExecutorService httpExecutor;
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final AtomicLong sequence = new AtomicLong(ThreadLocalRandom.current().nextLong(KEY_SPACE / 2));
+
+    ParkingSpotLoadTest(String baseUrl, int concurrency) {
+        this.baseUrl = baseUrl;
+        this.httpExecutor = Executors.newFixedThreadPool(Math.max(4, concurrency / 8));
+        this.httpClient = HttpClient.newBuilder()
+            .executor(httpExecutor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "20s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "5s"));
+        Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+        int seed = Integer.parseInt(options.getOrDefault("seed", "1000"));
+        String baseUrl = options.get("baseUrl");
+        File output = new File(options.getOrDefault("output", "target/load-test-result.json"));
+
+        List<String> modes = baseUrl != null ? List.of("external") : List.of(options.getOrDefault("modes", "platform,virtual").split(","));
+        // Checked before any mode runs, so a comparison cannot quietly come back with platform numbers only
+        if (modes.contains("virtual") && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual mode requires Java 21 or later, running on " + Runtime.version()
+                + "; run with a Java 21 JVM or pass modes=platform");
+        }
+        Map<String, Map<String, OperationResult>> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            ConfigurableApplicationContext context = mode.equals("external") ? null : startServer(mode, options);
+            String url = context == null ? baseUrl : "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            try (var loadTest = new ParkingSpotLoadTest(url, concurrency)) {
+                List<Registration> seeded = loadTest.seed(seed);
+                loadTest.run(concurrency, warmup, mix, seeded);
+                results.put(mode, loadTest.run(concurrency, duration, mix, seeded));
+            } finally {
+                if (context != null) {
+                    context.close();
+                }
+            }
+        }
+
+        print(results);
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        OBJECT_MAPPER.writeValue(output, new Report(concurrency, duration.toString(), mix, results));
+        System.out.println("\nResults written to " + output);
+
+        if (options.containsKey("baseline")) {
+            Report baseline = OBJECT_MAPPER.readValue(new File(options.get("baseline")), Report.class);
+            List<String> regressions = compare(baseline, results, Double.parseDouble(options.getOrDefault("tolerance", "0.2")));
+            if (!regressions.isEmpty()) {
+                System.out.println("\nRegressions against " + options.get("baseline") + ":");
+                regressions.forEach(regression -> System.out.println("  " + regression));
+                System.exit(1);
+            }
+            System.out.println("\nNo regression against " + options.get("baseline"));
+        }
+    }
+
+    private static ConfigurableApplicationContext startServer(String mode, Map<String, String> options) {
+        List<String> properties = new ArrayList<>(List.of(
+            "parking-control.threads.virtual=" + mode.equals("virtual"),
+            "parking-control.admission.enabled=" + Boolean.parseBoolean(options.getOrDefault("admission", "false"))));
+        if (options.containsKey("jdbcUrl")) {
+            properties.add("spring.datasource.url=" + options.get("jdbcUrl"));
+            properties.add("spring.datasource.username=" + options.getOrDefault("jdbcUser", ""));
+            properties.add("spring.datasource.password=" + options.getOrDefault("jdbcPassword", ""));
+        }
+        return BenchmarkApplication.startServer(properties.toArray(String[]::new));
+    }
+
+    @Override
+    public void close() {
+        httpExecutor.shutdownNow();
+    }
+
+    // Registered through the batch endpoint, outside of the measurements
+    List<Registration> seed(int count) throws IOException, InterruptedException {
+        List<Registration> seeded = new ArrayList<>(count);
+        for (int from = 0; from < count; from += SEED_BATCH_SIZE) {
+            List<Long> keys = new ArrayList<>();
+            for (int i = from; i < Math.min(count, from + SEED_BATCH_SIZE); i++) {
+                keys.add(sequence.incrementAndGet());
+            }
+            String body = keys.stream().map(key -> parkingSpotJson(key, key, "Black")).collect(Collectors.joining(",", "{\"parkingSpots\":[", "]}"));
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "/parking-spot/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode() + ": " + response.body());
+            }
+            Matcher matcher = ID_PATTERN.matcher(response.body());
+            for (int i = 0; i < keys.size() && matcher.find(); i++) {
+                seeded.add(new Registration(UUID.fromString(matcher.group(1)), keys.get(i)));
+            }
+        }
+        return seeded;
+    }
+
+    // Hands out the registrations to the workers and collects back the ones still there for the next run
+    Map<String, OperationResult> run(int concurrency, Duration duration, Map<Operation, Integer> mix, List<Registration> registrations)
+        throws InterruptedException {
+        Operation[] schedule = schedule(mix);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Worker>> futures = new ArrayList<>();
+        for (int worker = 0; worker < concurrency; worker++) {
+            List<Registration> owned = new ArrayList<>();
+            for (int i = worker; i < registrations.size(); i += concurrency) {
+                owned.add(registrations.get(i));
+            }
+            futures.add(workers.submit(() -> {
+                Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+                Random random = new Random();
+                while (System.nanoTime() < deadline) {
+                    Operation operation = schedule[random.nextInt(schedule.length)];
+                    execute(operation, owned, random, recorders.computeIfAbsent(operation, key -> new Recorder()));
+                }
+                return new Worker(recorders, owned);
+            }));
+        }
+        Map<Operation, Recorder> total = new EnumMap<>(Operation.class);
+        registrations.clear();
+        for (Future<Worker> future : futures) {
+            try {
+                Worker worker = future.get();
+                worker.recorders().forEach((operation, recorder) -> total.computeIfAbsent(operation, key -> new Recorder()).merge(recorder));
+                registrations.addAll(worker.owned());
+            } catch (ExecutionException exc) {
+                throw new IllegalStateException(exc.getCause());
+            }
+        }
+        workers.shutdown();
+        Map<String, OperationResult> results = new LinkedHashMap<>();
+        total.forEach((operation, recorder) -> results.put(operation.key(), OperationResult.of(recorder, duration)));
+        return results;
+    }
+
+    // Weights expanded into a table, so picking an operation is a single random index
+    private static Operation[] schedule(Map<Operation, Integer> mix) {
+        return mix.entrySet().stream()
+            .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+            .toArray(Operation[]::new);
+    }
+
+    // Operations on owned parking spots fall back to a registration while the worker owns none
+    private void execute(Operation operation, List<Registration> owned, Random random, Recorder recorder) {
+        if (owned.isEmpty() && operation != Operation.PAGE) {
+            operation = Operation.SAVE;
+        }
+        switch (operation) {
+            case LOOKUP -> send(recorder, get("/parking-spot/" + pick(owned, random).id()), 200);
+            case PAGE -> send(recorder, get("/parking-spot?size=10&page=" + random.nextInt(10)), 200);
+            case SAVE -> {
+                long key = sequence.incrementAndGet();
+                HttpResponse<String> created = send(recorder, json("/parking-spot", "POST", parkingSpotJson(key, key, "Black")), 201);
+                Matcher matcher = created == null ? null : ID_PATTERN.matcher(created.body());
+                if (matcher != null && matcher.find()) {
+                    owned.add(new Registration(UUID.fromString(matcher.group(1)), key));
+                }
+            }
+            // Same plate as an owned parking spot, new number and apartment: rejected with 409
+            case CONFLICT -> send(recorder, json("/parking-spot", "POST",
+                parkingSpotJson(sequence.incrementAndGet(), pick(owned, random).key(), "Black")), 409);
+            case UPDATE -> {
+                Registration registration = pick(owned, random);
+                String color = random.nextBoolean() ? "White" : "Red";
+                send(recorder, json("/parking-spot/" + registration.id(), "PUT", parkingSpotJson(registration.key(), registration.key(), color)), 200);
+            }
+            case DELETE -> {
+                Registration registration = owned.remove(random.nextInt(owned.size()));
+                send(recorder, HttpRequest.newBuilder(URI.create(baseUrl + "/parking-spot/" + registration.id())).DELETE(), 204);
+            }
+        }
+    }
+
+    private static Registration pick(List<Registration> owned, Random random) {
+        return owned.get(random.nextInt(owned.size()));
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private HttpRequest.Builder json(String path, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private HttpResponse<String> send(Recorder recorder, HttpRequest.Builder request, int expectedStatus) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+            recorder.record(System.nanoTime() - start, response.statusCode() == expectedStatus);
+            return response;
+        } catch (Exception exc) {
+            recorder.record(System.nanoTime() - start, false);
+            return null;
+        }
+    }
+
+    // The key gives the parking spot number and apartment, plateKey the plate
+    private static String parkingSpotJson(long key, long plateKey, String color) {
+        return String.format("{\"parkingSpotNumber\":\"%s\",\"licensePlateCar\":\"%s\",\"brandCar\":\"Audi\",\"modelCar\":\"Q5\","
+            + "\"colorCar\":\"%s\",\"responsibleName\":\"Load test\",\"apartment\":\"%s\",\"block\":\"L\"}",
+            plate(key), plate(plateKey), color, plate(key));
+    }
+
+    // Unique 7 character plates: base 36 keeps the sequence within the column length
+    private static String plate(long key) {
+        String encoded = Long.toString(key % KEY_SPACE, 36).toUpperCase();
+        return "L" + "0".repeat(Math.max(0, 6 - encoded.length())) + encoded;
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            options.put(parts[0], parts.length > 1 ? parts[1] : "true");
+        }
+        return options;
+    }
+
+    static Duration parseDuration(String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.split("=", 2);
+            mix.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        mix.values().removeIf(weight -> weight <= 0);
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("mix needs at least one operation with a positive weight");
+        }
+        return mix;
+    }
+
+    private static void print(Map<String, Map<String, OperationResult>> results) {
+        System.out.printf("%n%-10s %-10s %10s %12s %9s %9s %9s %9s %8s%n",
+            "mode", "operation", "requests", "requests/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+        results.forEach((mode, operations) -> operations.forEach((operation, result) ->
+            System.out.printf("%-10s %-10s %10d %12.1f %9.2f %9.2f %9.2f %9.2f %7.2f%%%n", mode, operation, result.requests(),
+                result.throughput(), result.p50Ms(), result.p90Ms(), result.p99Ms(), result.maxMs(), result.errorRate() * 100)));
+    }
+
+    static List<String> compare(Report baseline, Map<String, Map<String, OperationResult>> results, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        baseline.modes().forEach((mode, operations) -> operations.forEach((operation, expected) -> {
+            OperationResult actual = results.getOrDefault(mode, Map.of()).get(operation);
+            if (actual == null) {
+                return;
+            }
+            String name = mode + " " + operation;
+            if (actual.throughput() < expected.throughput() * (1 - tolerance)) {
+                regressions.add(String.format("%s: %.1f requests/s, baseline %.1f", name, actual.throughput(), expected.throughput()));
+            }
+            if (actual.p99Ms() > expected.p99Ms() * (1 + tolerance)) {
+                regressions.add(String.format("%s: p99 %.2f ms, baseline %.2f ms", name, actual.p99Ms(), expected.p99Ms()));
+            }
+            if (actual.errorRate() > expected.errorRate() + 0.01) {
+                regressions.add(String.format("%s: %.2f%% errors, baseline %.2f%%", name, actual.errorRate() * 100, expected.errorRate() * 100));
+            }
+        }));
+        return regressions;
+    }
+
+    static class Recorder {
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        void record(long latencyNanos, boolean success) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        void merge(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    record OperationResult(long requests, double throughput, double p50Ms, double p90Ms, double p99Ms, double maxMs, double errorRate) {
+        static OperationResult of(Recorder recorder, Duration duration) {
+            long[] sorted = recorder.sortedLatencies();
+            return new OperationResult(sorted.length, sorted.length / (duration.toNanos() / 1e9),
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), percentile(sorted, 1.0),
+                sorted.length == 0 ? 0 : (double) recorder.errors / sorted.length);
+        }
+
+        private static double percentile(long[] sortedLatencies, double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    record Report(int concurrency, String duration, Map<Operation, Integer> mix, Map<String, Map<String, OperationResult>> modes) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.api.parkingcontrol.benchmarks;
+
+import com.api.parkingcontrol.dtos.ParkingSpotDTO;
+import com.api.parkingcontrol.entities.ParkingSpot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// BeanUtils.copyProperties as used by ParkingSpotService.save vs the explicit setters of updateData.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParkingSpotMappingBenchmark {
+    private final ParkingSpotDTO parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
+
+    @Benchmark
+    public ParkingSpot beanUtilsCopyProperties() {
+        var parkingSpotEntity = new ParkingSpot();
+        BeanUtils.copyProperties(parkingSpotDTO, parkingSpotEntity);
+        return parkingSpotEntity;
+    }
+
+    @Benchmark
+    public ParkingSpot explicitMapping() {
+        var parkingSpotEntity = new ParkingSpot();
+        parkingSpotEntity.setParkingSpotNumber(parkingSpotDTO.getParkingSpotNumber());
+        parkingSpotEntity.setLicensePlateCar(parkingSpotDTO.getLicensePlateCar());
+        parkingSpotEntity.setBrandCar(parkingSpotDTO.getBrandCar());
+        parkingSpotEntity.setModelCar(parkingSpotDTO.getModelCar());
+        parkingSpotEntity.setColorCar(parkingSpotDTO.getColorCar());
+        parkingSpotEntity.setResponsibleName(parkingSpotDTO.getResponsibleName());
+        parkingSpotEntity.setApartment(parkingSpotDTO.getApartment());
+        parkingSpotEntity.setBlock(parkingSpotDTO.getBlock());
+        return parkingSpotEntity;
+    }
+}
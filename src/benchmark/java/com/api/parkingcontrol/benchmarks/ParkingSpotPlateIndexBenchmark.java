@@ -0,0 +1,92 @@
+package com.api.parkingcontrol.benchmarks;
+
+import com.api.parkingcontrol.entities.ParkingSpot;
+import com.api.parkingcontrol.services.ParkingSpotPlateIndex;
+import com.api.parkingcontrol.services.events.ParkingSpotChangedEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// ParkingSpotPlateIndex searches over 1M plates vs a linear scan, which is what an unindexed LIKE does.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ParkingSpotPlateIndexBenchmark {
+    private static final int PLATES = 1_000_000;
+    private static final int LIMIT = 20;
+
+    @Param({"RRS", "RRS8"})
+    public String query;
+
+    private ParkingSpotPlateIndex parkingSpotPlateIndex;
+    private String[] plates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        parkingSpotPlateIndex = new ParkingSpotPlateIndex(null, null, 0);
+        var random = new Random(42);
+        var generated = new HashSet<String>(PLATES * 2);
+        while (generated.size() < PLATES) {
+            generated.add(plate(random));
+        }
+        plates = generated.toArray(String[]::new);
+        Arrays.sort(plates);
+        var parkingSpot = new ParkingSpot();
+        for (String plate : plates) {
+            parkingSpot.setId(UUID.randomUUID());
+            parkingSpot.setLicensePlateCar(plate);
+            parkingSpotPlateIndex.onParkingSpotChanged(new ParkingSpotChangedEvent(ParkingSpotChangedEvent.Type.CREATED, parkingSpot.getId(), null, parkingSpot));
+        }
+    }
+
+    // Mercosul format: three letters, digit, letter or digit, two digits
+    private static String plate(Random random) {
+        return "" + letter(random) + letter(random) + letter(random) + digit(random)
+            + (random.nextBoolean() ? letter(random) : digit(random)) + digit(random) + digit(random);
+    }
+
+    private static char letter(Random random) {
+        return (char) ('A' + random.nextInt(26));
+    }
+
+    private static char digit(Random random) {
+        return (char) ('0' + random.nextInt(10));
+    }
+
+    @Benchmark
+    public List<UUID> indexPrefix() {
+        return parkingSpotPlateIndex.search(query, ParkingSpotPlateIndex.Match.PREFIX, LIMIT);
+    }
+
+    @Benchmark
+    public List<UUID> indexContains() {
+        return parkingSpotPlateIndex.search(query, ParkingSpotPlateIndex.Match.CONTAINS, LIMIT);
+    }
+
+    @Benchmark
+    public List<String> scanPrefix() {
+        var matches = new ArrayList<String>();
+        for (int i = 0; i < plates.length && matches.size() < LIMIT; i++) {
+            if (plates[i].startsWith(query)) {
+                matches.add(plates[i]);
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<String> scanContains() {
+        var matches = new ArrayList<String>();
+        for (String plate : plates) {
+            if (plate.contains(query)) {
+                matches.add(plate);
+            }
+        }
+        Collections.sort(matches);
+        return matches.subList(0, Math.min(LIMIT, matches.size()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.api.parkingcontrol.benchmarks;
+
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// Entity page (managed, dirty-checked at commit) vs constructor-expression DTO page, both serialized.
+// Run with -prof gc to compare gc.alloc.rate.norm.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParkingSpotProjectionBenchmark {
+    private static final int PAGE_SIZE = 1000;
+
+    private ConfigurableApplicationContext context;
+    private ParkingSpotRepository parkingSpotRepository;
+    private TransactionTemplate transactionTemplate;
+    private ObjectMapper objectMapper;
+    private final Pageable pageable = PageRequest.of(0, PAGE_SIZE, Sort.by("id"));
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        parkingSpotRepository = context.getBean(ParkingSpotRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        BenchmarkApplication.seed(parkingSpotRepository, PAGE_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entityPage() {
+        return transactionTemplate.execute(status -> write(parkingSpotRepository.findAll(pageable).getContent()));
+    }
+
+    @Benchmark
+    public byte[] projectionPage() {
+        return transactionTemplate.execute(status -> write(parkingSpotRepository.findAllResponses(pageable).getContent()));
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (Exception exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+}
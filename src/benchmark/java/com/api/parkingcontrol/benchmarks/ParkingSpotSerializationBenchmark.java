@@ -0,0 +1,103 @@
+package com.api.parkingcontrol.benchmarks;
+
+import com.api.parkingcontrol.configs.DateTimeConfig;
+import com.api.parkingcontrol.dtos.ParkingSpotPageDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotResponseDTO;
+import com.api.parkingcontrol.entities.ParkingSpot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+// Page serialization through the application's DateTimeConfig ObjectMapper, no Spring context involved:
+// PageImpl of entities and of DTOs against the compact ParkingSpotPageDTO written by a reused ObjectWriter,
+// with and without the Blackbird module. The bytes on the wire per page size, plain and gzipped, are printed
+// after each trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParkingSpotSerializationBenchmark {
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter compactPageWriter;
+    private ObjectWriter compactPageWriterWithoutBlackbird;
+    private Page<ParkingSpot> entityPage;
+    private Page<ParkingSpotResponseDTO> responsePage;
+    private ParkingSpotPageDTO compactPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new DateTimeConfig().objectMapper();
+        compactPageWriter = objectMapper.writerFor(ParkingSpotPageDTO.class);
+        JavaTimeModule module = new JavaTimeModule();
+        module.addSerializer(DateTimeConfig.LOCAL_DATETIME_SERIALIZER);
+        compactPageWriterWithoutBlackbird = new ObjectMapper().registerModule(module).writerFor(ParkingSpotPageDTO.class);
+        LocalDateTime registrationDate = LocalDateTime.now(ZoneId.of("UTC"));
+        var parkingSpots = IntStream.range(0, pageSize)
+            .mapToObj(i -> {
+                ParkingSpot parkingSpot = BenchmarkApplication.parkingSpot(i, registrationDate);
+                parkingSpot.setId(UUID.randomUUID());
+                return parkingSpot;
+            })
+            .toList();
+        var pageable = PageRequest.of(0, pageSize, Sort.by("id"));
+        entityPage = new PageImpl<>(parkingSpots, pageable, 50_000);
+        responsePage = new PageImpl<>(parkingSpots.stream().map(ParkingSpotResponseDTO::of).toList(), pageable, 50_000);
+        compactPage = ParkingSpotPageDTO.of(responsePage);
+    }
+
+    @TearDown
+    public void printSizes() throws IOException {
+        System.out.printf("%npageSize=%d bytes (gzip): entityPage=%d (%d) responsePage=%d (%d) compactPage=%d (%d)%n", pageSize,
+            entityPage().length, gzip(entityPage()).length,
+            responsePage().length, gzip(responsePage()).length,
+            compactPage().length, gzip(compactPage()).length);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] entityPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entityPage);
+    }
+
+    @Benchmark
+    public byte[] responsePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responsePage);
+    }
+
+    @Benchmark
+    public byte[] compactPage() throws JsonProcessingException {
+        return compactPageWriter.writeValueAsBytes(compactPage);
+    }
+
+    @Benchmark
+    public byte[] compactPageWithoutBlackbird() throws JsonProcessingException {
+        return compactPageWriterWithoutBlackbird.writeValueAsBytes(compactPage);
+    }
+}
@@ -0,0 +1,60 @@
+package com.api.parkingcontrol.benchmarks;
+
+import com.api.parkingcontrol.dtos.ParkingSpotDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotResponseDTO;
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.api.parkingcontrol.services.ParkingSpotService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParkingSpotServiceBenchmark {
+    private static final int SEEDED_ROWS = 10_000;
+    private static final int PAGE_SIZE = 10;
+
+    private ConfigurableApplicationContext context;
+    private ParkingSpotService parkingSpotService;
+    private final AtomicInteger sequence = new AtomicInteger(SEEDED_ROWS);
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        parkingSpotService = context.getBean(ParkingSpotService.class);
+        BenchmarkApplication.seed(context.getBean(ParkingSpotRepository.class), SEEDED_ROWS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ParkingSpotResponseDTO save() {
+        int i = sequence.incrementAndGet();
+        var parkingSpotDTO = new ParkingSpotDTO(String.valueOf(i), plate(i), "Audi", "Q5", "Black", "Benchmark", String.valueOf(i), "S");
+        return parkingSpotService.save(parkingSpotDTO);
+    }
+
+    // "S" and 6 base 36 digits: unique for the whole run (the seeded plates start with "BM"), so every save
+    // measures the insert path rather than a conflict
+    private static String plate(int i) {
+        String encoded = Integer.toString(i, 36).toUpperCase();
+        return "S" + "0".repeat(Math.max(0, 6 - encoded.length())) + encoded;
+    }
+
+    @Benchmark
+    public Page<ParkingSpotResponseDTO> findAll() {
+        return parkingSpotService.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+    }
+}
@@ -0,0 +1,74 @@
+package com.api.parkingcontrol.configs;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+// Runs after the Flyway migration and fails startup when an index the ParkingSpot queries rely on is missing.
+// Indexes are matched on their leading columns rather than their names, which differ between databases
+// created by migrations and the ones baselined from ddl-auto.
+@Component
+@ConditionalOnProperty(name = "parking-control.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class ParkingSpotIndexVerifier implements SmartInitializingSingleton {
+    private static final String TABLE = "parking_spot";
+    static final Map<String, List<String>> EXPECTED_INDEXES = Map.of(
+        "license plate lookups and prefix search", List.of("license_plate_car"),
+        "parking spot number lookups and cursor pagination", List.of("parking_spot_number"),
+        "apartment and block lookups", List.of("apartment", "block"),
+        "registration date cursor pagination", List.of("registration_date", "id"));
+
+    final DataSource dataSource;
+
+    public ParkingSpotIndexVerifier(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<List<String>> indexes;
+        try (Connection connection = dataSource.getConnection()) {
+            indexes = readIndexes(connection.getMetaData());
+        } catch (SQLException exc) {
+            throw new IllegalStateException("Could not read the indexes of " + TABLE, exc);
+        }
+        List<String> missing = EXPECTED_INDEXES.entrySet().stream()
+            .filter(expected -> indexes.stream().noneMatch(columns -> startsWith(columns, expected.getValue())))
+            .map(expected -> expected.getValue() + " (" + expected.getKey() + ")")
+            .sorted()
+            .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Table " + TABLE + " is missing indexes on " + String.join(", ", missing)
+                + "; check the Flyway migrations in db/migration");
+        }
+    }
+
+    // Column lists of every index on the table, in index order and lower case
+    private static List<List<String>> readIndexes(DatabaseMetaData metaData) throws SQLException {
+        String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase(Locale.ROOT) : TABLE;
+        Map<String, SortedMap<Short, String>> indexes = new HashMap<>();
+        try (ResultSet resultSet = metaData.getIndexInfo(null, null, table, false, false)) {
+            while (resultSet.next()) {
+                String indexName = resultSet.getString("INDEX_NAME");
+                String columnName = resultSet.getString("COLUMN_NAME");
+                if (indexName != null && columnName != null) {
+                    indexes.computeIfAbsent(indexName, name -> new TreeMap<>())
+                        .put(resultSet.getShort("ORDINAL_POSITION"), columnName.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return indexes.values().stream()
+            .map(columns -> List.copyOf(columns.values()))
+            .toList();
+    }
+
+    private static boolean startsWith(List<String> columns, List<String> leadingColumns) {
+        return columns.size() >= leadingColumns.size() && columns.subList(0, leadingColumns.size()).equals(leadingColumns);
+    }
+}
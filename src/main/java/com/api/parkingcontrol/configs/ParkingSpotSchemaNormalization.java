@@ -0,0 +1,123 @@
+package com.api.parkingcontrol.configs;
+
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+// Migration 1.1: brings tables created by the former ddl-auto=update (baselined at V1) in line with V1. Hibernate
+// named their unique constraints after a hash and never created the apartment/block one, and tables from before
+// optimistic locking have no version column. Constraints are matched on their columns, so the migration does
+// nothing on a table V1 created. Registered with Flyway by Spring Boot as a JavaMigration bean.
+@Component
+public class ParkingSpotSchemaNormalization implements JavaMigration {
+    private static final String TABLE = "parking_spot";
+    static final Map<String, List<String>> UNIQUE_CONSTRAINTS = Map.of(
+        "uk_parking_spot_parking_spot_number", List.of("parking_spot_number"),
+        "uk_parking_spot_license_plate_car", List.of("license_plate_car"),
+        "uk_parking_spot_apartment_block", List.of("apartment", "block"));
+
+    private record UniqueConstraint(String name, List<String> columns) {
+    }
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("1.1");
+    }
+
+    @Override
+    public String getDescription() {
+        return "normalize ddl auto parking spot schema";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            if (!hasColumn(connection.getMetaData(), "version")) {
+                statement.execute("alter table " + TABLE + " add column version bigint default 0 not null");
+            }
+            List<UniqueConstraint> existing = readUniqueConstraints(connection);
+            for (Map.Entry<String, List<String>> expected : UNIQUE_CONSTRAINTS.entrySet()) {
+                boolean present = false;
+                for (UniqueConstraint constraint : existing) {
+                    if (!constraint.columns().equals(expected.getValue())) {
+                        continue;
+                    }
+                    if (constraint.name().equalsIgnoreCase(expected.getKey())) {
+                        present = true;
+                    } else {
+                        statement.execute("alter table " + TABLE + " drop constraint \"" + constraint.name() + "\"");
+                    }
+                }
+                if (!present) {
+                    checkNoDuplicates(statement, expected.getValue());
+                    statement.execute("alter table " + TABLE + " add constraint " + expected.getKey()
+                        + " unique (" + String.join(", ", expected.getValue()) + ")");
+                }
+            }
+        }
+    }
+
+    private static boolean hasColumn(DatabaseMetaData metaData, String column) throws SQLException {
+        String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase(Locale.ROOT) : TABLE;
+        String columnName = metaData.storesUpperCaseIdentifiers() ? column.toUpperCase(Locale.ROOT) : column;
+        try (ResultSet resultSet = metaData.getColumns(null, null, table, columnName)) {
+            return resultSet.next();
+        }
+    }
+
+    // Column lists of the unique constraints on the table in the current schema, in constraint order and lower case
+    private static List<UniqueConstraint> readUniqueConstraints(Connection connection) throws SQLException {
+        Map<String, SortedMap<Integer, String>> constraints = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement("select tc.constraint_name, kcu.column_name, kcu.ordinal_position"
+            + " from information_schema.table_constraints tc join information_schema.key_column_usage kcu"
+            + " on kcu.constraint_schema = tc.constraint_schema and kcu.constraint_name = tc.constraint_name"
+            + " where tc.constraint_type = 'UNIQUE' and lower(tc.table_name) = ? and tc.table_schema = current_schema")) {
+            statement.setString(1, TABLE);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    constraints.computeIfAbsent(resultSet.getString(1), name -> new TreeMap<>())
+                        .put(resultSet.getInt(3), resultSet.getString(2).toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return constraints.entrySet().stream()
+            .map(constraint -> new UniqueConstraint(constraint.getKey(), List.copyOf(constraint.getValue().values())))
+            .toList();
+    }
+
+    // The original schema never enforced apartment/block uniqueness, so existing rows may break it
+    private static void checkNoDuplicates(Statement statement, List<String> columns) throws SQLException {
+        String columnList = String.join(", ", columns);
+        try (ResultSet resultSet = statement.executeQuery("select " + columnList + " from " + TABLE
+            + " group by " + columnList + " having count(*) > 1")) {
+            if (resultSet.next()) {
+                List<String> values = new ArrayList<>();
+                for (int i = 1; i <= columns.size(); i++) {
+                    values.add(resultSet.getString(i));
+                }
+                throw new IllegalStateException("Cannot add unique constraint on " + TABLE + " (" + columnList + "): " + values
+                    + " is used by more than one parking spot; resolve the duplicates and restart");
+            }
+        }
+    }
+}
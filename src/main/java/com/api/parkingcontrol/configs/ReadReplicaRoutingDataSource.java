@@ -0,0 +1,27 @@
+package com.api.parkingcontrol.configs;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Read-only transactions go to the replica unless the client is within its read-your-writes window; writes and
+// anything outside a transaction go to the primary. Only correct behind a LazyConnectionDataSourceProxy: the
+// transaction manager asks for the connection before the read-only flag is bound to the thread.
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    final ReadYourWritesWindow readYourWritesWindow;
+
+    public ReadReplicaRoutingDataSource(ReadYourWritesWindow readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !readYourWritesWindow.isOpen()
+            ? Target.REPLICA
+            : Target.PRIMARY;
+    }
+}
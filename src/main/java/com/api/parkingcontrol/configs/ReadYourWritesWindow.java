@@ -0,0 +1,49 @@
+package com.api.parkingcontrol.configs;
+
+import com.api.parkingcontrol.controllers.ClientIdResolver;
+import com.api.parkingcontrol.services.events.ParkingSpotChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// Clients whose write committed less than the window ago keep reading from the primary, so they see their own
+// writes while the replica catches up. Tracked per client and per instance: a client whose next request lands
+// on another instance may still read from the replica.
+@Component
+@ConditionalOnProperty(prefix = "parking-control.datasource.replica", name = "url")
+public class ReadYourWritesWindow {
+    final ClientIdResolver clientIdResolver;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesWindow(ClientIdResolver clientIdResolver,
+                                @Value("${parking-control.datasource.replica.read-your-writes-window:5s}") Duration window,
+                                @Value("${parking-control.datasource.replica.maximum-clients:100000}") long maximumClients) {
+        this.clientIdResolver = clientIdResolver;
+        this.recentWriters = Caffeine.newBuilder()
+            .maximumSize(maximumClients)
+            .expireAfterWrite(window)
+            .build();
+    }
+
+    public boolean isOpen() {
+        return clientIdResolver.current()
+            .map(clientId -> recentWriters.getIfPresent(clientId) != null)
+            .orElse(false);
+    }
+
+    // For writes made outside of the client's request, e.g. by the write-behind ingestion writer
+    public void open(String clientId) {
+        recentWriters.put(clientId, Boolean.TRUE);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onParkingSpotChanged(ParkingSpotChangedEvent event) {
+        clientIdResolver.current().ifPresent(this::open);
+    }
+}
@@ -0,0 +1,82 @@
+package com.api.parkingcontrol.controllers;
+
+import com.api.parkingcontrol.services.AdaptiveConcurrencyLimit;
+import com.api.parkingcontrol.services.ClientRateLimiter;
+import com.api.parkingcontrol.services.exceptions.ServiceUnavailableException;
+import com.api.parkingcontrol.services.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Admission control in front of ParkingSpotController: a request is first checked against its client's rate
+// limit (429), then against the global in-flight limit (503). Both are rejected immediately rather than queued,
+// and reach clients through ControllerExceptionHandler. Clients are told apart by ClientIdResolver.
+@Component
+@ConditionalOnProperty(name = "parking-control.admission.enabled", havingValue = "true")
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+    private static final String ADMITTED_AT = AdmissionControlInterceptor.class.getName() + ".admittedAt";
+
+    final ClientIdResolver clientIdResolver;
+    final ClientRateLimiter clientRateLimiter;
+    final AdaptiveConcurrencyLimit concurrencyLimit;
+
+    public AdmissionControlInterceptor(ClientIdResolver clientIdResolver, MeterRegistry meterRegistry,
+                                       @Value("${parking-control.admission.rate-per-second:100}") double ratePerSecond,
+                                       @Value("${parking-control.admission.burst:200}") int burst,
+                                       @Value("${parking-control.admission.maximum-clients:100000}") long maximumClients,
+                                       @Value("${parking-control.admission.initial-limit:20}") int initialLimit,
+                                       @Value("${parking-control.admission.min-limit:5}") int minLimit,
+                                       @Value("${parking-control.admission.max-limit:200}") int maxLimit,
+                                       @Value("${parking-control.admission.latency-threshold:250ms}") Duration latencyThreshold,
+                                       @Value("${parking-control.admission.backoff-ratio:0.9}") double backoffRatio) {
+        this.clientIdResolver = clientIdResolver;
+        this.clientRateLimiter = new ClientRateLimiter(ratePerSecond, burst, maximumClients);
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos(), backoffRatio);
+        meterRegistry.gauge("parking.spot.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit);
+        meterRegistry.gauge("parking.spot.admission.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Asynchronous requests come back through an ASYNC dispatch, which was admitted already
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String clientId = clientIdResolver.resolve(request);
+        long waitNanos = clientRateLimiter.tryAcquire(clientId);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            throw new TooManyRequestsException("Rate limit exceeded for client " + clientId + ", retry later", retryAfterSeconds);
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many requests in flight, retry later");
+        }
+        request.setAttribute(ADMITTED_AT, System.nanoTime());
+        return true;
+    }
+
+    // Streaming responses (export, change feed) give their slot back once they go asynchronous
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(ADMITTED_AT) != null) {
+            request.removeAttribute(ADMITTED_AT);
+            concurrencyLimit.release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED_AT) instanceof Long admittedAt) {
+            request.removeAttribute(ADMITTED_AT);
+            concurrencyLimit.release(System.nanoTime() - admittedAt, ex != null || response.getStatus() >= 500);
+        }
+    }
+}
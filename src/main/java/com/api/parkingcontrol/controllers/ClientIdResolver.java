@@ -0,0 +1,48 @@
+package com.api.parkingcontrol.controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Tells API clients apart by their authenticated principal or else by remote address. The client id header is
+// set by the caller, so it is only taken from trusted proxies, which forward many clients from one address.
+@Component
+public class ClientIdResolver {
+    final String clientIdHeader;
+    final Set<String> trustedProxies;
+
+    public ClientIdResolver(@Value("${parking-control.client-id-header:X-Client-Id}") String clientIdHeader,
+                            @Value("${parking-control.trusted-proxies:}") List<String> trustedProxies) {
+        this.clientIdHeader = clientIdHeader;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+    }
+
+    public String resolve(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        String remoteAddr = request.getRemoteAddr();
+        if (trustedProxies.contains(remoteAddr)) {
+            String clientId = request.getHeader(clientIdHeader);
+            if (clientId != null && !clientId.isBlank()) {
+                return clientId;
+            }
+        }
+        return remoteAddr;
+    }
+
+    // The client of the request handled on this thread, empty outside of requests (e.g. the ingestion writer)
+    public Optional<String> current() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+            ? Optional.of(resolve(attributes.getRequest()))
+            : Optional.empty();
+    }
+}
@@ -1,45 +1,153 @@
 package com.api.parkingcontrol.controllers;
 
+import com.api.parkingcontrol.dtos.ParkingSpotBatchDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotBatchResultDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotCursorPageDTO;
 import com.api.parkingcontrol.dtos.ParkingSpotDTO;
-import com.api.parkingcontrol.entities.ParkingSpot;
+import com.api.parkingcontrol.dtos.ParkingSpotIngestionStatusDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotOccupancyDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotPageDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotResponseDTO;
+import com.api.parkingcontrol.repositories.ParkingSpotSortKey;
+import com.api.parkingcontrol.services.ParkingSpotChangeFeed;
+import com.api.parkingcontrol.services.ParkingSpotExporter;
+import com.api.parkingcontrol.services.ParkingSpotIngestion;
+import com.api.parkingcontrol.services.ParkingSpotPlateIndex;
 import com.api.parkingcontrol.services.ParkingSpotService;
+import com.api.parkingcontrol.services.exceptions.InvalidCursorException;
+import com.api.parkingcontrol.services.exceptions.ObjectNotFoundException;
+import com.api.parkingcontrol.services.exceptions.PreconditionFailedException;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 @RequestMapping("/parking-spot")
 public class ParkingSpotController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     final ParkingSpotService parkingSpotService;
+    final ParkingSpotIngestion parkingSpotIngestion;
+    final ParkingSpotChangeFeed parkingSpotChangeFeed;
 
-    public ParkingSpotController(ParkingSpotService parkingSpotService) {
+    public ParkingSpotController(ParkingSpotService parkingSpotService, ParkingSpotIngestion parkingSpotIngestion,
+                                 ParkingSpotChangeFeed parkingSpotChangeFeed) {
         this.parkingSpotService = parkingSpotService;
+        this.parkingSpotIngestion = parkingSpotIngestion;
+        this.parkingSpotChangeFeed = parkingSpotChangeFeed;
     }
 
     @GetMapping
-    public ResponseEntity<Page<ParkingSpot>> getAll(@PageableDefault(page = 0, size = 10, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
-        Page<ParkingSpot> parkingSpotPageable = parkingSpotService.findAll(pageable);
+    public ResponseEntity<Page<ParkingSpotResponseDTO>> getAll(@PageableDefault(page = 0, size = 10, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
+        Page<ParkingSpotResponseDTO> parkingSpotPageable = parkingSpotService.findAll(pageable);
         return ResponseEntity.ok().body(parkingSpotPageable);
     }
 
+    // Opt-in compact page without PageImpl's pageable and sort details; plain JSON keeps the Page shape
+    @GetMapping(produces = ParkingSpotPageDTO.MEDIA_TYPE)
+    public ResponseEntity<ParkingSpotPageDTO> getAllCompact(@PageableDefault(page = 0, size = 10, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
+        Page<ParkingSpotResponseDTO> parkingSpotPageable = parkingSpotService.findAll(pageable);
+        return ResponseEntity.ok().body(ParkingSpotPageDTO.of(parkingSpotPageable));
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<ParkingSpotCursorPageDTO> getAllByCursor(@RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "id") String sort,
+                                                                   @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                                                   @RequestParam(defaultValue = "10") int size) {
+        ParkingSpotSortKey sortKey;
+        try {
+            sortKey = ParkingSpotSortKey.fromProperty(sort);
+        } catch (IllegalArgumentException exc) {
+            throw new InvalidCursorException(exc.getMessage());
+        }
+        var parkingSpotCursorPage = parkingSpotService.findAll(cursor, sortKey, direction, Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE)));
+        return ResponseEntity.ok().body(parkingSpotCursorPage);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "NDJSON") ParkingSpotExporter.Format format) {
+        StreamingResponseBody body = outputStream -> parkingSpotService.export(format, outputStream);
+        var contentDisposition = ContentDisposition.attachment().filename("parking-spots." + format.name().toLowerCase()).build();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getMediaType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+            .body(body);
+    }
+
+    // Pushes created/updated/deleted events after commit; EventSource resumes through Last-Event-ID on reconnect
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                              @RequestParam(required = false) Long since) {
+        return parkingSpotChangeFeed.subscribe(lastEventId, since);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ParkingSpotResponseDTO>> searchByLicensePlateCar(@RequestParam String licensePlateCar,
+                                                                                @RequestParam(defaultValue = "PREFIX") ParkingSpotPlateIndex.Match match,
+                                                                                @RequestParam(defaultValue = "20") int limit) {
+        var parkingSpots = parkingSpotService.searchByLicensePlateCar(licensePlateCar, match, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+        return ResponseEntity.ok().body(parkingSpots);
+    }
+
+    @GetMapping("/occupancy")
+    public ResponseEntity<ParkingSpotOccupancyDTO> getOccupancy() {
+        return ResponseEntity.ok().body(parkingSpotService.getOccupancy());
+    }
+
+    // The version is the ETag: a matching If-None-Match gets a 304 without serializing the body
     @GetMapping("/{id}")
-    public ResponseEntity<ParkingSpot> getById(@PathVariable UUID id) {
+    public ResponseEntity<ParkingSpotResponseDTO> getById(@PathVariable UUID id, WebRequest webRequest) {
         var parkingSpotEntity = parkingSpotService.findById(id);
-        return ResponseEntity.ok().body(parkingSpotEntity);
+        if (webRequest.checkNotModified(String.valueOf(parkingSpotEntity.getVersion()))) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(String.valueOf(parkingSpotEntity.getVersion())).body(parkingSpotEntity);
     }
 
+    // In write-behind mode the registration is only reserved and queued: 202 with a tracking id to poll
     @PostMapping
-    public ResponseEntity<ParkingSpot> save(@RequestBody @Valid ParkingSpotDTO parkingSpotDTO) {
+    public ResponseEntity<?> save(@RequestBody @Valid ParkingSpotDTO parkingSpotDTO) {
+        if (parkingSpotIngestion.isEnabled()) {
+            var ingestionStatus = parkingSpotIngestion.submit(parkingSpotDTO);
+            var location = ServletUriComponentsBuilder.fromCurrentRequest().path("/ingestion/{trackingId}")
+                .buildAndExpand(ingestionStatus.getTrackingId()).toUri();
+            return ResponseEntity.accepted().location(location).body(ingestionStatus);
+        }
         var parkingSpotEntity = parkingSpotService.save(parkingSpotDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(parkingSpotEntity);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(String.valueOf(parkingSpotEntity.getVersion())).body(parkingSpotEntity);
+    }
+
+    @GetMapping("/ingestion/{trackingId}")
+    public ResponseEntity<ParkingSpotIngestionStatusDTO> getIngestionStatus(@PathVariable UUID trackingId) {
+        var ingestionStatus = parkingSpotIngestion.getStatus(trackingId)
+            .orElseThrow(() -> new ObjectNotFoundException("Registration with tracking id " + trackingId + " not found."));
+        return ResponseEntity.ok().body(ingestionStatus);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<ParkingSpotBatchResultDTO>> saveAll(@RequestBody @Valid ParkingSpotBatchDTO parkingSpotBatchDTO) {
+        var results = parkingSpotService.saveAll(parkingSpotBatchDTO.getParkingSpots());
+        return ResponseEntity.ok().body(results);
     }
 
     @DeleteMapping("/{id}")
@@ -49,8 +157,32 @@ public class ParkingSpotController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ParkingSpot> update(@PathVariable UUID id, @RequestBody @Valid ParkingSpotDTO parkingSpotDTO) {
-        var parkingSpotEntity = parkingSpotService.update(id, parkingSpotDTO);
-        return ResponseEntity.ok().body(parkingSpotEntity);
+    public ResponseEntity<ParkingSpotResponseDTO> update(@PathVariable UUID id, @RequestBody @Valid ParkingSpotDTO parkingSpotDTO,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var parkingSpotEntity = parkingSpotService.update(id, parkingSpotDTO, ifMatchVersions(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(parkingSpotEntity.getVersion())).body(parkingSpotEntity);
+    }
+
+    // If-Match (RFC 9110 13.1.1) is a list of ETags compared strongly, so weak W/ tags never match; "*" only requires
+    // the parking spot to exist. Returns the versions that would match, null when any version does.
+    private static Set<Long> ifMatchVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String entry : ifMatch.split(",")) {
+            String eTag = entry.trim();
+            if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+                try {
+                    versions.add(Long.valueOf(eTag.substring(1, eTag.length() - 1)));
+                } catch (NumberFormatException exc) {
+                    // Not an ETag issued by this API, so it cannot match
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("If-Match " + ifMatch.trim() + " does not match the current version");
+        }
+        return versions;
     }
 }
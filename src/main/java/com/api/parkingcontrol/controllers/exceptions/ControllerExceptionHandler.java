@@ -1,8 +1,14 @@
 package com.api.parkingcontrol.controllers.exceptions;
 
+import com.api.parkingcontrol.services.exceptions.InvalidCursorException;
 import com.api.parkingcontrol.services.exceptions.ObjectConflictException;
 import com.api.parkingcontrol.services.exceptions.ObjectNotFoundException;
+import com.api.parkingcontrol.services.exceptions.PreconditionFailedException;
+import com.api.parkingcontrol.services.exceptions.ServiceUnavailableException;
+import com.api.parkingcontrol.services.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -12,6 +18,12 @@ import java.time.LocalDateTime;
 
 @ControllerAdvice
 public class ControllerExceptionHandler {
+    final MeterRegistry meterRegistry;
+
+    public ControllerExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(ObjectNotFoundException.class)
     public ResponseEntity<StandardError> objectNotFound(ObjectNotFoundException exc, HttpServletRequest req) {
         LocalDateTime now = LocalDateTime.now();
@@ -20,6 +32,7 @@ public class ControllerExceptionHandler {
         String message = exc.getMessage();
         String path = req.getRequestURI();
         StandardError standardError = new StandardError(now, status.value(), error, message, path);
+        countError(status, error);
         return ResponseEntity.status(status).body(standardError);
     }
 
@@ -31,6 +44,60 @@ public class ControllerExceptionHandler {
         String message = exc.getMessage();
         String path = req.getRequestURI();
         StandardError standardError = new StandardError(now, status.value(), error, message, path);
+        countError(status, error);
+        return ResponseEntity.status(status).body(standardError);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<StandardError> preconditionFailed(PreconditionFailedException exc, HttpServletRequest req) {
+        LocalDateTime now = LocalDateTime.now();
+        HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+        String error = "Precondition failed";
+        String message = exc.getMessage();
+        String path = req.getRequestURI();
+        StandardError standardError = new StandardError(now, status.value(), error, message, path);
+        countError(status, error);
         return ResponseEntity.status(status).body(standardError);
     }
-}
\ No newline at end of file
+
+    // Retry-After tells clients when to resubmit instead of retrying immediately
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<StandardError> serviceUnavailable(ServiceUnavailableException exc, HttpServletRequest req) {
+        LocalDateTime now = LocalDateTime.now();
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        String error = "Service unavailable";
+        String message = exc.getMessage();
+        String path = req.getRequestURI();
+        StandardError standardError = new StandardError(now, status.value(), error, message, path);
+        countError(status, error);
+        return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "1").body(standardError);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<StandardError> tooManyRequests(TooManyRequestsException exc, HttpServletRequest req) {
+        LocalDateTime now = LocalDateTime.now();
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        String error = "Too many requests";
+        String message = exc.getMessage();
+        String path = req.getRequestURI();
+        StandardError standardError = new StandardError(now, status.value(), error, message, path);
+        countError(status, error);
+        return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, String.valueOf(exc.getRetryAfterSeconds())).body(standardError);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<StandardError> invalidCursor(InvalidCursorException exc, HttpServletRequest req) {
+        LocalDateTime now = LocalDateTime.now();
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        String error = "Invalid cursor";
+        String message = exc.getMessage();
+        String path = req.getRequestURI();
+        StandardError standardError = new StandardError(now, status.value(), error, message, path);
+        countError(status, error);
+        return ResponseEntity.status(status).body(standardError);
+    }
+
+    private void countError(HttpStatus status, String error) {
+        meterRegistry.counter("parking.spot.errors", "status", String.valueOf(status.value()), "error", error).increment();
+    }
+}
@@ -0,0 +1,19 @@
+package com.api.parkingcontrol.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpotBatchDTO {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@Valid ParkingSpotDTO> parkingSpots;
+}
@@ -0,0 +1,30 @@
+package com.api.parkingcontrol.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpotBatchResultDTO {
+    private int index;
+    private Status status;
+    private UUID id;
+    private String message;
+
+    public enum Status {
+        CREATED,
+        CONFLICT
+    }
+
+    public static ParkingSpotBatchResultDTO created(int index, UUID id) {
+        return new ParkingSpotBatchResultDTO(index, Status.CREATED, id, null);
+    }
+
+    public static ParkingSpotBatchResultDTO conflict(int index, String message) {
+        return new ParkingSpotBatchResultDTO(index, Status.CONFLICT, null, message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.api.parkingcontrol.dtos;
+
+import com.api.parkingcontrol.services.events.ParkingSpotChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpotChangeDTO {
+    private long sequence;
+    private ParkingSpotChangedEvent.Type type;
+    private UUID id;
+    // State after the change, null for deletions
+    private ParkingSpotResponseDTO parkingSpot;
+}
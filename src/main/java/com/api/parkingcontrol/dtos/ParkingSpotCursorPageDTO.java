@@ -0,0 +1,15 @@
+package com.api.parkingcontrol.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpotCursorPageDTO {
+    private List<ParkingSpotResponseDTO> content;
+    private String nextCursor;
+}
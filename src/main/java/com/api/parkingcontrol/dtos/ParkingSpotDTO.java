@@ -1,5 +1,6 @@
 package com.api.parkingcontrol.dtos;
 
+import com.api.parkingcontrol.entities.ParkingSpot;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -27,4 +28,9 @@ public class ParkingSpotDTO {
     private String apartment;
     @NotBlank
     private String block;
+
+    // Normalized as the entity stores it, so conflict checks and write-behind reservations compare stored values
+    public void setLicensePlateCar(String licensePlateCar) {
+        this.licensePlateCar = ParkingSpot.normalizeLicensePlateCar(licensePlateCar);
+    }
 }
@@ -0,0 +1,40 @@
+package com.api.parkingcontrol.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpotIngestionStatusDTO {
+    private UUID trackingId;
+    private Status status;
+    private UUID id;
+    private String message;
+
+    public enum Status {
+        PENDING,
+        CREATED,
+        CONFLICT,
+        FAILED
+    }
+
+    public static ParkingSpotIngestionStatusDTO pending(UUID trackingId) {
+        return new ParkingSpotIngestionStatusDTO(trackingId, Status.PENDING, null, null);
+    }
+
+    public static ParkingSpotIngestionStatusDTO created(UUID trackingId, UUID id) {
+        return new ParkingSpotIngestionStatusDTO(trackingId, Status.CREATED, id, null);
+    }
+
+    public static ParkingSpotIngestionStatusDTO conflict(UUID trackingId, String message) {
+        return new ParkingSpotIngestionStatusDTO(trackingId, Status.CONFLICT, null, message);
+    }
+
+    public static ParkingSpotIngestionStatusDTO failed(UUID trackingId, String message) {
+        return new ParkingSpotIngestionStatusDTO(trackingId, Status.FAILED, null, message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.api.parkingcontrol.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpotOccupancyDTO {
+    private long total;
+    private Map<String, Long> blocks;
+    // Keyed by block, then apartment: apartment numbers repeat across blocks
+    private Map<String, Map<String, Long>> apartments;
+    // Keyed by UTC registration day (yyyy-MM-dd)
+    private Map<String, Long> registrationsPerDay;
+}
@@ -0,0 +1,36 @@
+package com.api.parkingcontrol.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+// Page of parking spots without the pageable and sort details PageImpl would serialize (the same shape as
+// Spring Data's PagedModel)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpotPageDTO {
+    // Requested through the Accept header; GET /parking-spot answers with the full Page otherwise
+    public static final String MEDIA_TYPE = "application/vnd.parking-spot.page+json";
+
+    private List<ParkingSpotResponseDTO> content;
+    private Metadata page;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Metadata {
+        private int size;
+        private int number;
+        private long totalElements;
+        private int totalPages;
+    }
+
+    public static ParkingSpotPageDTO of(Page<ParkingSpotResponseDTO> page) {
+        return new ParkingSpotPageDTO(page.getContent(),
+            new Metadata(page.getSize(), page.getNumber(), page.getTotalElements(), page.getTotalPages()));
+    }
+}
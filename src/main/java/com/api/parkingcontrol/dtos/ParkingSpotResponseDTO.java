@@ -0,0 +1,32 @@
+package com.api.parkingcontrol.dtos;
+
+import com.api.parkingcontrol.entities.ParkingSpot;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpotResponseDTO {
+    private UUID id;
+    private String parkingSpotNumber;
+    private String licensePlateCar;
+    private String brandCar;
+    private String modelCar;
+    private String colorCar;
+    private LocalDateTime registrationDate;
+    private String responsibleName;
+    private String apartment;
+    private String block;
+    private Long version;
+
+    public static ParkingSpotResponseDTO of(ParkingSpot parkingSpot) {
+        return new ParkingSpotResponseDTO(parkingSpot.getId(), parkingSpot.getParkingSpotNumber(), parkingSpot.getLicensePlateCar(),
+            parkingSpot.getBrandCar(), parkingSpot.getModelCar(), parkingSpot.getColorCar(), parkingSpot.getRegistrationDate(),
+            parkingSpot.getResponsibleName(), parkingSpot.getApartment(), parkingSpot.getBlock(), parkingSpot.getVersion());
+    }
+}
@@ -2,20 +2,34 @@ package com.api.parkingcontrol.entities;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Where;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.UUID;
 
 @Entity
-@Table(name = "parking_spot")
+@Table(name = "parking_spot", uniqueConstraints = {
+    @UniqueConstraint(name = ParkingSpot.UK_PARKING_SPOT_NUMBER, columnNames = {"parkingSpotNumber", "active"}),
+    @UniqueConstraint(name = ParkingSpot.UK_LICENSE_PLATE_CAR, columnNames = {"licensePlateCar", "active"}),
+    @UniqueConstraint(name = ParkingSpot.UK_APARTMENT_BLOCK, columnNames = {"apartment", "block", "active"})
+})
+// Tombstones left by soft deletes are invisible to every entity and JPQL query
+@Where(clause = "deleted_at is null")
 @Data
 public class ParkingSpot {
+    public static final String UK_PARKING_SPOT_NUMBER = "uk_parking_spot_parking_spot_number";
+    public static final String UK_LICENSE_PLATE_CAR = "uk_parking_spot_license_plate_car";
+    public static final String UK_APARTMENT_BLOCK = "uk_parking_spot_apartment_block";
+
+    // Generated in memory rather than by an IDENTITY column, which would disable JDBC insert batching
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
-    @Column(nullable = false, unique = true, length = 10)
+    @Column(nullable = false, length = 10)
     private String parkingSpotNumber;
-    @Column(nullable = false, unique = true, length = 7)
+    @Column(nullable = false, length = 7)
     private String licensePlateCar;
     @Column(nullable = false, length = 70)
     private String brandCar;
@@ -31,4 +45,23 @@ public class ParkingSpot {
     private String apartment;
     @Column(nullable = false, length = 30)
     private String block;
+    // Optimistic lock, also exposed as the ETag; the default backfills rows created before the column existed
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    // Set together by a soft delete: deletedAt to the deletion time and active to null, which takes the row out of
+    // the unique constraints (see V4__add_parking_spot_tombstones.sql)
+    private LocalDateTime deletedAt;
+    @ColumnDefault("true")
+    private Boolean active = true;
+
+    // Plates are stored in upper case, so plate searches can upper-case the query (see V5__normalize_license_plate_car.sql)
+    public void setLicensePlateCar(String licensePlateCar) {
+        this.licensePlateCar = normalizeLicensePlateCar(licensePlateCar);
+    }
+
+    public static String normalizeLicensePlateCar(String licensePlateCar) {
+        return licensePlateCar != null ? licensePlateCar.toUpperCase(Locale.ROOT) : null;
+    }
 }
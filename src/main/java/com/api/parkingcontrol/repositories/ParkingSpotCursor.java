@@ -0,0 +1,27 @@
+package com.api.parkingcontrol.repositories;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+// Position after the last returned row: its sort key value plus the id as tie-breaker.
+public record ParkingSpotCursor(ParkingSpotSortKey sortKey, Sort.Direction direction, Comparable<?> value, UUID id) {
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = sortKey.name() + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ParkingSpotCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\|", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        ParkingSpotSortKey sortKey = ParkingSpotSortKey.valueOf(parts[0]);
+        return new ParkingSpotCursor(sortKey, Sort.Direction.valueOf(parts[1]), sortKey.parse(parts[3]), UUID.fromString(parts[2]));
+    }
+}
@@ -0,0 +1,11 @@
+package com.api.parkingcontrol.repositories;
+
+// One row of the occupancy seed query: how many parking spots share a block, an apartment within a block or a
+// registration day. block is only set on APARTMENT rows, since apartment numbers repeat across blocks.
+public record ParkingSpotOccupancyCount(Dimension dimension, String block, String key, long count) {
+    public enum Dimension {
+        BLOCK,
+        APARTMENT,
+        REGISTRATION_DAY
+    }
+}
@@ -0,0 +1,6 @@
+package com.api.parkingcontrol.repositories;
+
+import java.util.UUID;
+
+public record ParkingSpotPlate(UUID id, String licensePlateCar) {
+}
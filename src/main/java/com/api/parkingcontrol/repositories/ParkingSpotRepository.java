@@ -1,12 +1,84 @@
 package com.api.parkingcontrol.repositories;
 
+import com.api.parkingcontrol.dtos.ParkingSpotResponseDTO;
 import com.api.parkingcontrol.entities.ParkingSpot;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, UUID>, ParkingSpotRepositoryCustom {
+    // Constructor expression: rows are read into DTOs without entering the persistence context
+    String SELECT_RESPONSE = "select new com.api.parkingcontrol.dtos.ParkingSpotResponseDTO(p.id, p.parkingSpotNumber, p.licensePlateCar, "
+        + "p.brandCar, p.modelCar, p.colorCar, p.registrationDate, p.responsibleName, p.apartment, p.block, p.version) from ParkingSpot p";
 
-public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, UUID> {
     boolean existsByLicensePlateCar(String licensePlateCar);
     boolean existsByParkingSpotNumber(String parkingSpotNumber);
     boolean existsByApartmentAndBlock(String apartment, String block);
+
+    // Resolves the three uniqueness rules in a single round trip. Each branch is an indexed lookup on its own
+    // unique constraint, where a single OR predicate leaves planners such as H2's with a full table scan.
+    @Query("select p from ParkingSpot p where p.licensePlateCar = :licensePlateCar"
+        + " union all select p from ParkingSpot p where p.parkingSpotNumber = :parkingSpotNumber"
+        + " union all select p from ParkingSpot p where p.apartment = :apartment and p.block = :block")
+    List<ParkingSpot> findConflicts(String licensePlateCar, String parkingSpotNumber, String apartment, String block);
+
+    @Query("select p from ParkingSpot p where p.licensePlateCar in :licensePlateCars"
+        + " union all select p from ParkingSpot p where p.parkingSpotNumber in :parkingSpotNumbers"
+        + " union all select p from ParkingSpot p where p.apartment in :apartments and p.block in :blocks")
+    List<ParkingSpot> findAllConflicts(Collection<String> licensePlateCars, Collection<String> parkingSpotNumbers, Collection<String> apartments, Collection<String> blocks);
+
+    // All occupancy aggregates in one round trip, one row per block, apartment within a block and registration day
+    @Query("select new com.api.parkingcontrol.repositories.ParkingSpotOccupancyCount("
+        + "com.api.parkingcontrol.repositories.ParkingSpotOccupancyCount$Dimension.BLOCK, cast(null as String), p.block, count(p))"
+        + " from ParkingSpot p group by p.block"
+        + " union all select new com.api.parkingcontrol.repositories.ParkingSpotOccupancyCount("
+        + "com.api.parkingcontrol.repositories.ParkingSpotOccupancyCount$Dimension.APARTMENT, p.block, p.apartment, count(p))"
+        + " from ParkingSpot p group by p.block, p.apartment"
+        + " union all select new com.api.parkingcontrol.repositories.ParkingSpotOccupancyCount("
+        + "com.api.parkingcontrol.repositories.ParkingSpotOccupancyCount$Dimension.REGISTRATION_DAY, cast(null as String), "
+        + "str(cast(p.registrationDate as LocalDate)), count(p))"
+        + " from ParkingSpot p group by str(cast(p.registrationDate as LocalDate))")
+    List<ParkingSpotOccupancyCount> countOccupancy();
+
+    // Keyset chunks of (id, plate) pairs for loading the plate index without materializing the whole table
+    @Query("select new com.api.parkingcontrol.repositories.ParkingSpotPlate(p.id, p.licensePlateCar) from ParkingSpot p"
+        + " where p.id > :id order by p.id")
+    List<ParkingSpotPlate> findPlatesAfter(UUID id, Pageable pageable);
+
+    // pattern must escape % and _ with a backslash
+    @Query(SELECT_RESPONSE + " where p.licensePlateCar like :pattern escape '\\' order by p.licensePlateCar")
+    List<ParkingSpotResponseDTO> findResponsesByLicensePlateCarLike(String pattern, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + " where p.id in :ids")
+    List<ParkingSpotResponseDTO> findResponsesByIdIn(Collection<UUID> ids);
+
+    @Query(value = SELECT_RESPONSE, countQuery = "select count(p) from ParkingSpot p")
+    Page<ParkingSpotResponseDTO> findAllResponses(Pageable pageable);
+
+    // Forward-only cursor over DTOs; must be consumed inside a transaction (PostgreSQL only honours the fetch size
+    // with auto-commit off). Projections never enter the persistence context, so memory stays flat.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESPONSE + " order by p.id")
+    Stream<ParkingSpotResponseDTO> streamAllResponses();
+
+    @Query(SELECT_RESPONSE + " where p.id = :id")
+    Optional<ParkingSpotResponseDTO> findResponseById(UUID id);
+
+    // Removes up to limit tombstones deleted before deletedBefore, oldest first; must run inside a transaction
+    @Modifying
+    @Query(value = "delete from parking_spot where id in (select id from parking_spot where deleted_at < :deletedBefore"
+        + " order by deleted_at limit :limit)", nativeQuery = true)
+    int deleteTombstones(LocalDateTime deletedBefore, int limit);
 }
@@ -0,0 +1,18 @@
+package com.api.parkingcontrol.repositories;
+
+import com.api.parkingcontrol.dtos.ParkingSpotResponseDTO;
+import com.api.parkingcontrol.entities.ParkingSpot;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ParkingSpotRepositoryCustom {
+    List<ParkingSpotResponseDTO> findAllAfter(ParkingSpotCursor cursor, ParkingSpotSortKey sortKey, Sort.Direction direction, int limit);
+
+    // Single-statement deletes that return the row they removed (empty when there was none)
+    Optional<ParkingSpot> deleteReturning(UUID id);
+    Optional<ParkingSpot> softDeleteReturning(UUID id, LocalDateTime deletedAt);
+}
@@ -0,0 +1,89 @@
+package com.api.parkingcontrol.repositories;
+
+import com.api.parkingcontrol.dtos.ParkingSpotResponseDTO;
+import com.api.parkingcontrol.entities.ParkingSpot;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.*;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+public class ParkingSpotRepositoryCustomImpl implements ParkingSpotRepositoryCustom {
+    // Neither statement touches tombstones, so a parking spot is only ever deleted once
+    private static final String DELETE = "delete from parking_spot where id = :id and deleted_at is null";
+    // Bumps the version so a concurrent update of the same row fails its optimistic lock
+    private static final String SOFT_DELETE = "update parking_spot set deleted_at = :deletedAt, active = null, version = version + 1"
+        + " where id = :id and deleted_at is null";
+
+    final EntityManager entityManager;
+    final boolean postgreSQL;
+
+    public ParkingSpotRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.postgreSQL = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    // Seeks past (sort key, id) instead of skipping an offset, and never issues a count query.
+    @Override
+    public List<ParkingSpotResponseDTO> findAllAfter(ParkingSpotCursor cursor, ParkingSpotSortKey sortKey, Sort.Direction direction, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ParkingSpotResponseDTO> query = cb.createQuery(ParkingSpotResponseDTO.class);
+        Root<ParkingSpot> root = query.from(ParkingSpot.class);
+        Path<Comparable<Object>> key = root.get(sortKey.getProperty());
+        Path<UUID> id = root.get("id");
+        boolean ascending = direction.isAscending();
+        query.select(cb.construct(ParkingSpotResponseDTO.class, id, root.get("parkingSpotNumber"), root.get("licensePlateCar"),
+            root.get("brandCar"), root.get("modelCar"), root.get("colorCar"), root.get("registrationDate"),
+            root.get("responsibleName"), root.get("apartment"), root.get("block"), root.get("version")));
+
+        if (cursor != null) {
+            Predicate afterId = ascending ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+            if (sortKey == ParkingSpotSortKey.ID) {
+                query.where(afterId);
+            } else {
+                @SuppressWarnings("unchecked")
+                Comparable<Object> value = (Comparable<Object>) cursor.value();
+                Predicate afterKey = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+                query.where(cb.or(afterKey, cb.and(cb.equal(key, value), afterId)));
+            }
+        }
+        if (sortKey == ParkingSpotSortKey.ID) {
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        } else {
+            query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+        }
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    @Override
+    public Optional<ParkingSpot> deleteReturning(UUID id) {
+        return singleRowReturning(postgreSQL ? DELETE + " returning *" : "select * from old table (" + DELETE + ")",
+            query -> query.setParameter("id", id));
+    }
+
+    // Returns the tombstone; the columns the change listeners read are the ones the live row had
+    @Override
+    public Optional<ParkingSpot> softDeleteReturning(UUID id, LocalDateTime deletedAt) {
+        return singleRowReturning(postgreSQL ? SOFT_DELETE + " returning *" : "select * from final table (" + SOFT_DELETE + ")",
+            query -> query.setParameter("id", id).setParameter("deletedAt", deletedAt));
+    }
+
+    // PostgreSQL returns the affected row from the statement itself, H2 through a data change delta table (the
+    // only databases with migrations). The row is detached so the persistence context never holds a deleted entity.
+    private Optional<ParkingSpot> singleRowReturning(String sql, UnaryOperator<Query> parameters) {
+        @SuppressWarnings("unchecked")
+        List<ParkingSpot> rows = parameters.apply(entityManager.createNativeQuery(sql, ParkingSpot.class)).getResultList();
+        rows.forEach(entityManager::detach);
+        return rows.stream().findFirst();
+    }
+}
@@ -0,0 +1,35 @@
+package com.api.parkingcontrol.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Function;
+
+public enum ParkingSpotSortKey {
+    ID("id", UUID::fromString),
+    REGISTRATION_DATE("registrationDate", LocalDateTime::parse),
+    PARKING_SPOT_NUMBER("parkingSpotNumber", Function.identity());
+
+    private final String property;
+    private final Function<String, ? extends Comparable<?>> parser;
+
+    ParkingSpotSortKey(String property, Function<String, ? extends Comparable<?>> parser) {
+        this.property = property;
+        this.parser = parser;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    public static ParkingSpotSortKey fromProperty(String property) {
+        return Arrays.stream(values())
+            .filter(sortKey -> sortKey.property.equals(property))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unsupported sort property " + property));
+    }
+}
@@ -0,0 +1,70 @@
+package com.api.parkingcontrol.services;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Global cap on requests in flight, adjusted by AIMD: every response faster than the latency threshold raises
+// the limit by 1/limit (about one per round of requests), a slower or failed one multiplies it by the backoff
+// ratio. Requests queue on the connection pool first, so its wait and the queries show up in this latency.
+// A decrease happens at most once per threshold, so one slow episode seen by many requests counts once.
+// Counters are atomics updated by compare-and-set; nothing blocks.
+public class AdaptiveConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+        this.lastDecreaseNanos = new AtomicLong(System.nanoTime() - latencyThresholdNanos);
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // For requests whose duration says nothing about the database, e.g. ones that went asynchronous
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long latencyNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            long now = System.nanoTime();
+            long lastDecrease = lastDecreaseNanos.get();
+            if (now - lastDecrease >= latencyThresholdNanos && lastDecreaseNanos.compareAndSet(lastDecrease, now)) {
+                limitBits.updateAndGet(bits -> Double.doubleToLongBits(Math.max(minLimit, Double.longBitsToDouble(bits) * backoffRatio)));
+            }
+        } else {
+            limitBits.updateAndGet(bits -> {
+                double limit = Double.longBitsToDouble(bits);
+                return Double.doubleToLongBits(Math.min(maxLimit, limit + 1 / limit));
+            });
+        }
+    }
+}
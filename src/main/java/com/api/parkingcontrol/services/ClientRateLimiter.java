@@ -0,0 +1,43 @@
+package com.api.parkingcontrol.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-client token bucket in its GCRA form: each client is a single theoretical arrival time, advanced with a
+// compare-and-set, so checking a request takes no lock and clients never contend with each other. Clients idle
+// for longer than it takes to refill the bucket are evicted, which loses nothing.
+public class ClientRateLimiter {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<String, AtomicLong> theoreticalArrivalTimes;
+
+    public ClientRateLimiter(double ratePerSecond, int burst, long maximumClients) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (Math.max(1, burst) - 1);
+        this.theoreticalArrivalTimes = Caffeine.newBuilder()
+            .maximumSize(maximumClients)
+            .expireAfterAccess(Duration.ofNanos(burstToleranceNanos + emissionIntervalNanos))
+            .build();
+    }
+
+    // 0 when the request conforms, otherwise how long the client has to wait before its next request does
+    public long tryAcquire(String clientId) {
+        long now = System.nanoTime();
+        AtomicLong theoreticalArrivalTime = theoreticalArrivalTimes.get(clientId, key -> new AtomicLong(now));
+        while (true) {
+            long current = theoreticalArrivalTime.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long allowedAt = next - emissionIntervalNanos - burstToleranceNanos;
+            if (now < allowedAt) {
+                return allowedAt - now;
+            }
+            if (theoreticalArrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.api.parkingcontrol.services;
+
+import com.api.parkingcontrol.dtos.ParkingSpotResponseDTO;
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.api.parkingcontrol.services.events.ParkingSpotChangedEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Read-through cache in front of ParkingSpotRepository lookups, invalidated after each write commits.
+// Entries are futures inserted before the load runs on the caller's thread, so no JDBC call happens
+// inside Caffeine's compute (a synchronized block that would pin virtual threads). An invalidation
+// drops an in-flight future, so a load that read pre-commit data is never served after the commit.
+@Component
+public class ParkingSpotCache {
+    final ParkingSpotRepository parkingSpotRepository;
+    final AsyncCache<UUID, ParkingSpotResponseDTO> byId;
+    final AsyncCache<String, Boolean> existsByLicensePlateCar;
+    final AsyncCache<String, Boolean> existsByParkingSpotNumber;
+    final AsyncCache<String, Boolean> existsByApartmentAndBlock;
+
+    public ParkingSpotCache(ParkingSpotRepository parkingSpotRepository, MeterRegistry meterRegistry,
+                            @Value("${parking-control.cache.maximum-size:10000}") long maximumSize,
+                            @Value("${parking-control.cache.ttl:30s}") Duration ttl) {
+        this.parkingSpotRepository = parkingSpotRepository;
+        this.byId = build(meterRegistry, "parkingSpotById", maximumSize, ttl);
+        this.existsByLicensePlateCar = build(meterRegistry, "parkingSpotByLicensePlateCar", maximumSize, ttl);
+        this.existsByParkingSpotNumber = build(meterRegistry, "parkingSpotByParkingSpotNumber", maximumSize, ttl);
+        this.existsByApartmentAndBlock = build(meterRegistry, "parkingSpotByApartmentAndBlock", maximumSize, ttl);
+    }
+
+    private static <K, V> AsyncCache<K, V> build(MeterRegistry meterRegistry, String name, long maximumSize, Duration ttl) {
+        AsyncCache<K, V> cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    public ParkingSpotResponseDTO findById(UUID id) {
+        return get(byId, id, key -> parkingSpotRepository.findResponseById(key).orElse(null));
+    }
+
+    public boolean existsByLicensePlateCar(String licensePlateCar) {
+        return get(existsByLicensePlateCar, licensePlateCar, parkingSpotRepository::existsByLicensePlateCar);
+    }
+
+    public boolean existsByParkingSpotNumber(String parkingSpotNumber) {
+        return get(existsByParkingSpotNumber, parkingSpotNumber, parkingSpotRepository::existsByParkingSpotNumber);
+    }
+
+    public boolean existsByApartmentAndBlock(String apartment, String block) {
+        return get(existsByApartmentAndBlock, ParkingSpotService.apartmentAndBlockKey(apartment, block),
+            key -> parkingSpotRepository.existsByApartmentAndBlock(apartment, block));
+    }
+
+    private static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        var loading = new CompletableFuture<V>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> loading);
+        if (future == loading) {
+            try {
+                loading.complete(loader.apply(key));
+            } catch (RuntimeException exc) {
+                loading.completeExceptionally(exc);
+                throw exc;
+            }
+        }
+        return future.join();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onParkingSpotChanged(ParkingSpotChangedEvent event) {
+        byId.synchronous().invalidate(event.id());
+        Stream.of(event.before(), event.after())
+            .filter(parkingSpot -> parkingSpot != null)
+            .forEach(parkingSpot -> {
+                existsByLicensePlateCar.synchronous().invalidate(parkingSpot.getLicensePlateCar());
+                existsByParkingSpotNumber.synchronous().invalidate(parkingSpot.getParkingSpotNumber());
+                existsByApartmentAndBlock.synchronous().invalidate(ParkingSpotService.apartmentAndBlockKey(parkingSpot.getApartment(), parkingSpot.getBlock()));
+            });
+    }
+
+    public void invalidateAll() {
+        byId.synchronous().invalidateAll();
+        existsByLicensePlateCar.synchronous().invalidateAll();
+        existsByParkingSpotNumber.synchronous().invalidateAll();
+        existsByApartmentAndBlock.synchronous().invalidateAll();
+    }
+}
@@ -0,0 +1,255 @@
+package com.api.parkingcontrol.services;
+
+import com.api.parkingcontrol.configs.VirtualThreadConfig;
+import com.api.parkingcontrol.dtos.ParkingSpotChangeDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotResponseDTO;
+import com.api.parkingcontrol.services.events.ParkingSpotChangedEvent;
+import com.api.parkingcontrol.services.exceptions.ServiceUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Server-Sent Events feed of committed changes. Every change gets a sequence number and is kept in a bounded
+// ring buffer, so a client reconnecting with Last-Event-ID (or ?since=) gets what it missed. Each subscriber has
+// its own bounded queue, drained by a thread of the feed's own executor (never the shared task executor, which a
+// few stalled sockets could exhaust), so at most one thread waits on each subscriber. A subscriber that falls
+// behind, or whose send blocks for longer than send-timeout, is disconnected instead of stalling the others, and
+// resumes from its last event id when it reconnects. Event ids carry an epoch so ids
+// from before a restart are recognized; a client that cannot be resumed gets a "reset" event and should reload.
+// A change is serialized once, when it is recorded, and the same JSON is sent to every subscriber.
+@Component
+public class ParkingSpotChangeFeed implements DisposableBean {
+    static final String RESET_EVENT = "reset";
+
+    private record Change(long sequence, String name, String json) {
+    }
+
+    final ExecutorService senders;
+    final ScheduledExecutorService watchdog;
+    final ObjectWriter changeWriter;
+    final int subscriberQueueCapacity;
+    final int maxSubscribers;
+    final Duration timeout;
+    final long sendTimeoutNanos;
+    final Counter sendTimeouts;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Change[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private long lastSequence;
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<Change> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        // Start of the send in progress (0 when idle), for the watchdog
+        volatile long sendStartedNanos;
+
+        Subscriber(SseEmitter emitter, int queueCapacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+
+    public ParkingSpotChangeFeed(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Value("${parking-control.threads.virtual:false}") boolean virtualThreads,
+                                 @Value("${parking-control.change-feed.buffer-size:1024}") int bufferSize,
+                                 @Value("${parking-control.change-feed.subscriber-queue-capacity:256}") int subscriberQueueCapacity,
+                                 @Value("${parking-control.change-feed.max-subscribers:1000}") int maxSubscribers,
+                                 @Value("${parking-control.change-feed.timeout:30m}") Duration timeout,
+                                 @Value("${parking-control.change-feed.send-timeout:10s}") Duration sendTimeout) {
+        // Threads are only created while a subscriber has events to send and are reused afterwards
+        this.senders = virtualThreads
+            ? VirtualThreadConfig.newVirtualThreadPerTaskExecutor()
+            : Executors.newCachedThreadPool(daemonThreadFactory("parking-spot-change-feed-"));
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("parking-spot-change-feed-watchdog-"));
+        this.changeWriter = objectMapper.writerFor(ParkingSpotChangeDTO.class);
+        this.subscriberQueueCapacity = subscriberQueueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.sendTimeouts = meterRegistry.counter("parking.spot.change.feed.send.timeouts");
+        this.ring = new Change[bufferSize];
+        meterRegistry.gaugeCollectionSize("parking.spot.change.feed.subscribers", List.of(), subscribers);
+        long checkMillis = Math.max(100, sendTimeout.toMillis() / 4);
+        watchdog.scheduleWithFixedDelay(this::disconnectStalledSubscribers, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static CustomizableThreadFactory daemonThreadFactory(String prefix) {
+        var threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Resumes after lastEventId (as sent back by EventSource) or since; without either, only new changes are sent
+    public SseEmitter subscribe(String lastEventId, Long since) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Too many change feed subscribers, retry later");
+        }
+        var subscriber = new Subscriber(new SseEmitter(timeout.toMillis()), subscriberQueueCapacity);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(exc -> subscribers.remove(subscriber));
+        Long resumeAfter = lastEventId != null ? parseEventId(lastEventId) : since;
+        boolean reset = false;
+        lock.lock();
+        try {
+            if (resumeAfter != null) {
+                long oldestRetained = Math.max(1, lastSequence - ring.length + 1);
+                if (resumeAfter < oldestRetained - 1 || resumeAfter > lastSequence || lastSequence - resumeAfter > subscriberQueueCapacity) {
+                    reset = true;
+                } else {
+                    for (long sequence = resumeAfter + 1; sequence <= lastSequence; sequence++) {
+                        subscriber.queue.add(ring[(int) (sequence % ring.length)]);
+                    }
+                }
+            }
+            // Registered under the lock so no change falls between the replay and the live events
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        if (reset) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().name(RESET_EVENT).id(eventId(lastSequence())).data(""));
+            } catch (IOException exc) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(exc);
+                return subscriber.emitter;
+            }
+        }
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onParkingSpotChanged(ParkingSpotChangedEvent event) {
+        var parkingSpot = event.after() != null ? ParkingSpotResponseDTO.of(event.after()) : null;
+        List<Subscriber> ready = new ArrayList<>();
+        List<Subscriber> overflowed = new ArrayList<>();
+        lock.lock();
+        try {
+            long sequence = ++lastSequence;
+            var change = new Change(sequence, event.type().name().toLowerCase(),
+                serialize(new ParkingSpotChangeDTO(sequence, event.type(), event.id(), parkingSpot)));
+            ring[(int) (sequence % ring.length)] = change;
+            for (Subscriber subscriber : subscribers) {
+                (subscriber.queue.offer(change) ? ready : overflowed).add(subscriber);
+            }
+        } finally {
+            lock.unlock();
+        }
+        ready.forEach(this::schedule);
+        overflowed.forEach(subscriber -> {
+            subscribers.remove(subscriber);
+            senders.execute(subscriber.emitter::complete);
+        });
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    // At most one drain per subscriber at a time, so its events are sent in sequence order
+    private void drain(Subscriber subscriber) {
+        do {
+            Change change;
+            while ((change = subscriber.queue.poll()) != null) {
+                subscriber.sendStartedNanos = System.nanoTime();
+                try {
+                    subscriber.emitter.send(SseEmitter.event()
+                        .id(eventId(change.sequence()))
+                        .name(change.name())
+                        .data(change.json(), MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException exc) {
+                    subscribers.remove(subscriber);
+                    return;
+                } finally {
+                    subscriber.sendStartedNanos = 0;
+                }
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    // A send that blocks this long means the client stopped reading: the subscriber gets no further events and its
+    // response is completed. Only its own sender thread stays blocked, until the connector's write timeout expires.
+    private void disconnectStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long sendStartedNanos = subscriber.sendStartedNanos;
+            if (sendStartedNanos != 0 && now - sendStartedNanos > sendTimeoutNanos && subscribers.remove(subscriber)) {
+                sendTimeouts.increment();
+                subscriber.emitter.completeWithError(new IOException("Change feed send timed out"));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private String serialize(ParkingSpotChangeDTO change) {
+        try {
+            return changeWriter.writeValueAsString(change);
+        } catch (JsonProcessingException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + ":" + sequence;
+    }
+
+    // Ids from another epoch (before a restart) or malformed ones cannot be resumed: -1 forces a reset
+    private Long parseEventId(String eventId) {
+        int separator = eventId.indexOf(':');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException exc) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.api.parkingcontrol.services;
+
+import com.api.parkingcontrol.configs.DateTimeConfig;
+import com.api.parkingcontrol.dtos.ParkingSpotResponseDTO;
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Streams every parking spot from a forward-only cursor straight to the response, flushing as it goes,
+// so neither the heap nor the response buffer grows with the number of rows.
+@Component
+public class ParkingSpotExporter {
+    private static final int FLUSH_INTERVAL = 500;
+    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern(DateTimeConfig.DATETIME_FORMAT);
+    private static final List<Column> CSV_COLUMNS = List.of(
+        new Column("id", ParkingSpotResponseDTO::getId),
+        new Column("parkingSpotNumber", ParkingSpotResponseDTO::getParkingSpotNumber),
+        new Column("licensePlateCar", ParkingSpotResponseDTO::getLicensePlateCar),
+        new Column("brandCar", ParkingSpotResponseDTO::getBrandCar),
+        new Column("modelCar", ParkingSpotResponseDTO::getModelCar),
+        new Column("colorCar", ParkingSpotResponseDTO::getColorCar),
+        new Column("registrationDate", parkingSpot -> parkingSpot.getRegistrationDate() != null ? DATETIME_FORMATTER.format(parkingSpot.getRegistrationDate()) : null),
+        new Column("responsibleName", ParkingSpotResponseDTO::getResponsibleName),
+        new Column("apartment", ParkingSpotResponseDTO::getApartment),
+        new Column("block", ParkingSpotResponseDTO::getBlock),
+        new Column("version", ParkingSpotResponseDTO::getVersion));
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+    }
+
+    private record Column(String name, Function<ParkingSpotResponseDTO, Object> getter) {
+    }
+
+    final ParkingSpotRepository parkingSpotRepository;
+    final TransactionTemplate transactionTemplate;
+    final ObjectWriter jsonWriter;
+
+    public ParkingSpotExporter(ParkingSpotRepository parkingSpotRepository, PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.parkingSpotRepository = parkingSpotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jsonWriter = objectMapper.writerFor(ParkingSpotResponseDTO.class);
+    }
+
+    public void export(Format format, OutputStream outputStream) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ParkingSpotResponseDTO> parkingSpots = parkingSpotRepository.streamAllResponses()) {
+                switch (format) {
+                    case NDJSON -> writeNdjson(parkingSpots.iterator(), outputStream);
+                    case CSV -> writeCsv(parkingSpots.iterator(), outputStream);
+                }
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        });
+    }
+
+    private void writeNdjson(Iterator<ParkingSpotResponseDTO> parkingSpots, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = jsonWriter.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (int row = 1; parkingSpots.hasNext(); row++) {
+                jsonWriter.writeValue(generator, parkingSpots.next());
+                generator.writeRaw('\n');
+                if (row % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<ParkingSpotResponseDTO> parkingSpots, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writeCsvRecord(writer, CSV_COLUMNS.stream().map(Column::name).toList());
+        for (int row = 1; parkingSpots.hasNext(); row++) {
+            ParkingSpotResponseDTO parkingSpot = parkingSpots.next();
+            writeCsvRecord(writer, CSV_COLUMNS.stream().map(column -> column.getter().apply(parkingSpot)).toList());
+            if (row % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    // RFC 4180: fields containing a separator, quote or line break are quoted, with quotes doubled
+    private static void writeCsvRecord(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = Objects.toString(values.get(i), "");
+            if (value.chars().anyMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+                value = '"' + value.replace("\"", "\"\"") + '"';
+            }
+            writer.write(value);
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,261 @@
+package com.api.parkingcontrol.services;
+
+import com.api.parkingcontrol.configs.ReadYourWritesWindow;
+import com.api.parkingcontrol.controllers.ClientIdResolver;
+import com.api.parkingcontrol.dtos.ParkingSpotBatchResultDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotIngestionStatusDTO;
+import com.api.parkingcontrol.entities.ParkingSpot;
+import com.api.parkingcontrol.services.exceptions.ObjectConflictException;
+import com.api.parkingcontrol.services.exceptions.ServiceUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Opt-in write-behind mode for POST /parking-spot (parking-control.ingestion.write-behind=true). A registration
+// reserves its unique keys in memory and is checked against the database before it is queued, so conflicts are
+// still answered synchronously and the first reservation wins. A single writer drains the bounded queue into
+// batched inserts through ParkingSpotService.saveAll and releases the reservations once the batch commits.
+// A full queue is reported as 503 rather than blocking request threads.
+@Component
+public class ParkingSpotIngestion implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(ParkingSpotIngestion.class);
+
+    // clientId is captured on submit: the writer thread has no request to resolve it from
+    private record Registration(UUID trackingId, ParkingSpotDTO parkingSpotDTO, String clientId) {
+    }
+
+    final ParkingSpotService parkingSpotService;
+    final ClientIdResolver clientIdResolver;
+    final ObjectProvider<ReadYourWritesWindow> readYourWritesWindow;
+    final boolean enabled;
+    final int batchSize;
+    private final BlockingQueue<Registration> queue;
+    private final Cache<UUID, ParkingSpotIngestionStatusDTO> statuses;
+    private final Map<String, UUID> reservedLicensePlateCars = new ConcurrentHashMap<>();
+    private final Map<String, UUID> reservedParkingSpotNumbers = new ConcurrentHashMap<>();
+    private final Map<String, UUID> reservedApartmentsAndBlocks = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private Thread writer;
+
+    public ParkingSpotIngestion(ParkingSpotService parkingSpotService, ClientIdResolver clientIdResolver,
+                                ObjectProvider<ReadYourWritesWindow> readYourWritesWindow, MeterRegistry meterRegistry,
+                                @Value("${parking-control.ingestion.write-behind:false}") boolean enabled,
+                                @Value("${parking-control.ingestion.queue-capacity:10000}") int queueCapacity,
+                                @Value("${parking-control.ingestion.batch-size:${spring.jpa.properties.hibernate.jdbc.batch_size:50}}") int batchSize,
+                                @Value("${parking-control.ingestion.status-retention:10m}") Duration statusRetention) {
+        this.parkingSpotService = parkingSpotService;
+        this.clientIdResolver = clientIdResolver;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses = Caffeine.newBuilder()
+            .expireAfterWrite(statusRetention)
+            .build();
+        meterRegistry.gauge("parking.spot.ingestion.queue", queue, BlockingQueue::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ParkingSpotIngestionStatusDTO submit(ParkingSpotDTO parkingSpotDTO) {
+        var registration = new Registration(UUID.randomUUID(), parkingSpotDTO, clientIdResolver.current().orElse(null));
+        reserve(registration);
+        var pending = ParkingSpotIngestionStatusDTO.pending(registration.trackingId());
+        statuses.put(registration.trackingId(), pending);
+        // Re-checked after queuing: a registration queued once the writer has exited would never be written
+        if (!running || !queue.offer(registration) || !running && queue.remove(registration)) {
+            statuses.invalidate(registration.trackingId());
+            release(registration);
+            throw new ServiceUnavailableException("Parking Spot ingestion queue is full or stopping, retry later");
+        }
+        openReadYourWritesWindow(registration);
+        return pending;
+    }
+
+    public Optional<ParkingSpotIngestionStatusDTO> getStatus(UUID trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    // Claims every unique key or none: keys held by a queued registration are conflicts, and once all three are
+    // claimed a single union query (the one the synchronous path uses) checks them against stored rows
+    private void reserve(Registration registration) {
+        ParkingSpotDTO parkingSpotDTO = registration.parkingSpotDTO();
+        ObjectConflictException conflict = null;
+        if (!claim(reservedLicensePlateCars, parkingSpotDTO.getLicensePlateCar(), registration)) {
+            conflict = parkingSpotService.licensePlateCarConflict(parkingSpotDTO);
+        } else if (!claim(reservedParkingSpotNumbers, parkingSpotDTO.getParkingSpotNumber(), registration)) {
+            conflict = parkingSpotService.parkingSpotNumberConflict(parkingSpotDTO);
+        } else if (!claim(reservedApartmentsAndBlocks, apartmentAndBlockKey(parkingSpotDTO), registration)) {
+            conflict = parkingSpotService.apartmentAndBlockConflict(parkingSpotDTO);
+        } else {
+            try {
+                parkingSpotService.checkConflicts(parkingSpotDTO);
+            } catch (ObjectConflictException exc) {
+                conflict = exc;
+            }
+        }
+        if (conflict != null) {
+            release(registration);
+            throw conflict;
+        }
+    }
+
+    private static boolean claim(Map<String, UUID> reservations, String key, Registration registration) {
+        return reservations.putIfAbsent(key, registration.trackingId()) == null;
+    }
+
+    // Only removes keys this registration holds
+    private void release(Registration registration) {
+        ParkingSpotDTO parkingSpotDTO = registration.parkingSpotDTO();
+        reservedLicensePlateCars.remove(parkingSpotDTO.getLicensePlateCar(), registration.trackingId());
+        reservedParkingSpotNumbers.remove(parkingSpotDTO.getParkingSpotNumber(), registration.trackingId());
+        reservedApartmentsAndBlocks.remove(apartmentAndBlockKey(parkingSpotDTO), registration.trackingId());
+    }
+
+    private static String apartmentAndBlockKey(ParkingSpotDTO parkingSpotDTO) {
+        return ParkingSpotService.apartmentAndBlockKey(parkingSpotDTO.getApartment(), parkingSpotDTO.getBlock());
+    }
+
+    private void drain() {
+        var batch = new ArrayList<Registration>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    Registration first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    write(batch);
+                } catch (InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        } finally {
+            // Only left with registrations when interrupted: they would otherwise stay PENDING and keep their keys
+            running = false;
+            var remaining = new ArrayList<Registration>();
+            queue.drainTo(remaining);
+            remaining.forEach(registration -> complete(registration, ParkingSpotIngestionStatusDTO.failed(registration.trackingId(),
+                "Parking Spot ingestion stopped before the registration was written")));
+        }
+    }
+
+    private void write(List<Registration> batch) {
+        try {
+            List<ParkingSpotBatchResultDTO> results = parkingSpotService.saveAll(batch.stream().map(Registration::parkingSpotDTO).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), results.get(i));
+            }
+        } catch (RuntimeException exc) {
+            log.error("Could not write {} queued parking spot registrations", batch.size(), exc);
+            recover(batch, exc);
+        }
+    }
+
+    // saveAll commits chunk by chunk, so the chunks before the failure are stored: only registrations without their
+    // row failed. When even that cannot be read, the whole batch is reported as failed.
+    private void recover(List<Registration> batch, RuntimeException exc) {
+        List<ParkingSpot> stored;
+        try {
+            stored = parkingSpotService.findExisting(batch.stream().map(Registration::parkingSpotDTO).toList());
+        } catch (RuntimeException recheckExc) {
+            log.error("Could not check which of {} queued parking spot registrations were written", batch.size(), recheckExc);
+            batch.forEach(registration -> fail(registration, exc));
+            return;
+        }
+        for (Registration registration : batch) {
+            stored.stream()
+                .filter(parkingSpot -> isWrittenBy(parkingSpot, registration))
+                .findFirst()
+                .ifPresentOrElse(parkingSpot -> complete(registration, ParkingSpotIngestionStatusDTO.created(registration.trackingId(), parkingSpot.getId())),
+                    () -> fail(registration, exc));
+        }
+    }
+
+    // The registration held all three keys until now, so a row carrying all of them is its own
+    private static boolean isWrittenBy(ParkingSpot parkingSpot, Registration registration) {
+        ParkingSpotDTO parkingSpotDTO = registration.parkingSpotDTO();
+        return parkingSpot.getLicensePlateCar().equals(ParkingSpot.normalizeLicensePlateCar(parkingSpotDTO.getLicensePlateCar()))
+            && parkingSpot.getParkingSpotNumber().equals(parkingSpotDTO.getParkingSpotNumber())
+            && parkingSpot.getApartment().equals(parkingSpotDTO.getApartment())
+            && parkingSpot.getBlock().equals(parkingSpotDTO.getBlock());
+    }
+
+    private void complete(Registration registration, ParkingSpotBatchResultDTO result) {
+        complete(registration, result.getStatus() == ParkingSpotBatchResultDTO.Status.CREATED
+            ? ParkingSpotIngestionStatusDTO.created(registration.trackingId(), result.getId())
+            : ParkingSpotIngestionStatusDTO.conflict(registration.trackingId(), result.getMessage()));
+    }
+
+    // The write has committed (and the cache has been invalidated) before the reservation is released. The window
+    // is opened again from the commit, before the status says CREATED, since the queue may have outlasted the first.
+    private void complete(Registration registration, ParkingSpotIngestionStatusDTO status) {
+        if (status.getStatus() == ParkingSpotIngestionStatusDTO.Status.CREATED) {
+            openReadYourWritesWindow(registration);
+        }
+        statuses.put(registration.trackingId(), status);
+        release(registration);
+    }
+
+    // Only there when a replica is configured
+    private void openReadYourWritesWindow(Registration registration) {
+        if (registration.clientId() != null) {
+            readYourWritesWindow.ifAvailable(window -> window.open(registration.clientId()));
+        }
+    }
+
+    private void fail(Registration registration, RuntimeException exc) {
+        complete(registration, ParkingSpotIngestionStatusDTO.failed(registration.trackingId(), exc.getMessage()));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "parking-spot-ingestion");
+        writer.start();
+    }
+
+    // Stops accepting registrations and lets the writer drain what is already queued
+    @Override
+    public void stop() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+}
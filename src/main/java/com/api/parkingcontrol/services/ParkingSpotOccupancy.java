@@ -0,0 +1,90 @@
+package com.api.parkingcontrol.services;
+
+import com.api.parkingcontrol.dtos.ParkingSpotOccupancyDTO;
+import com.api.parkingcontrol.entities.ParkingSpot;
+import com.api.parkingcontrol.repositories.ParkingSpotOccupancyCount;
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.api.parkingcontrol.services.events.ParkingSpotChangedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// In-memory occupancy aggregates, seeded by one grouped query before the web server starts and then kept
+// up to date from committed changes, so a summary costs O(blocks + apartments + days) instead of a table scan.
+// Apartments are counted per block, since the same apartment number exists in several blocks.
+// A rebuild running concurrently with writes may count a change twice; call rebuild() again to resync.
+@Component
+public class ParkingSpotOccupancy implements SmartInitializingSingleton {
+    final ParkingSpotRepository parkingSpotRepository;
+    private Counts counts = new Counts();
+
+    public ParkingSpotOccupancy(ParkingSpotRepository parkingSpotRepository) {
+        this.parkingSpotRepository = parkingSpotRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        var seeded = new Counts();
+        for (ParkingSpotOccupancyCount row : parkingSpotRepository.countOccupancy()) {
+            switch (row.dimension()) {
+                case BLOCK -> {
+                    seeded.blocks.put(row.key(), row.count());
+                    seeded.total += row.count();
+                }
+                case APARTMENT -> seeded.apartments.computeIfAbsent(row.block(), block -> new HashMap<>()).put(row.key(), row.count());
+                case REGISTRATION_DAY -> seeded.registrationsPerDay.put(row.key(), row.count());
+            }
+        }
+        synchronized (this) {
+            counts = seeded;
+        }
+    }
+
+    public synchronized ParkingSpotOccupancyDTO summary() {
+        var apartments = new TreeMap<String, Map<String, Long>>();
+        counts.apartments.forEach((block, apartmentCounts) -> apartments.put(block, new TreeMap<>(apartmentCounts)));
+        return new ParkingSpotOccupancyDTO(counts.total, new TreeMap<>(counts.blocks), apartments, new TreeMap<>(counts.registrationsPerDay));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onParkingSpotChanged(ParkingSpotChangedEvent event) {
+        if (event.before() != null) {
+            counts.add(event.before(), -1);
+        }
+        if (event.after() != null) {
+            counts.add(event.after(), 1);
+        }
+    }
+
+    private static final class Counts {
+        private long total;
+        private final Map<String, Long> blocks = new HashMap<>();
+        private final Map<String, Map<String, Long>> apartments = new HashMap<>();
+        private final Map<String, Long> registrationsPerDay = new HashMap<>();
+
+        void add(ParkingSpot parkingSpot, long delta) {
+            total += delta;
+            add(blocks, parkingSpot.getBlock(), delta);
+            Map<String, Long> blockApartments = apartments.computeIfAbsent(parkingSpot.getBlock(), block -> new HashMap<>());
+            add(blockApartments, parkingSpot.getApartment(), delta);
+            if (blockApartments.isEmpty()) {
+                apartments.remove(parkingSpot.getBlock());
+            }
+            add(registrationsPerDay, parkingSpot.getRegistrationDate().toLocalDate().toString(), delta);
+        }
+
+        // Drops keys whose count reaches zero so the summary only lists occupied blocks and apartments
+        private static void add(Map<String, Long> counts, String key, long delta) {
+            counts.merge(key, delta, (count, increment) -> count + increment == 0 ? null : count + increment);
+        }
+    }
+}
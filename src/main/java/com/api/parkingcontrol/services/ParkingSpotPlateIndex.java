@@ -0,0 +1,163 @@
+package com.api.parkingcontrol.services;
+
+import com.api.parkingcontrol.entities.ParkingSpot;
+import com.api.parkingcontrol.repositories.ParkingSpotPlate;
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.api.parkingcontrol.services.events.ParkingSpotChangedEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory license plate index: a sorted map answers prefix searches with a range scan and a trigram index
+// narrows substring searches to the plates sharing the query's rarest trigram. It is loaded in the background
+// once the application is ready and then follows committed changes. Until it is warm, searches go to the
+// database. Entries may be briefly stale, so callers re-check matches against the database.
+@Component
+public class ParkingSpotPlateIndex {
+    private static final int GRAM = 3;
+
+    public enum Match {
+        PREFIX,
+        CONTAINS
+    }
+
+    final ParkingSpotRepository parkingSpotRepository;
+    final TaskExecutor taskExecutor;
+    final int loadChunkSize;
+    private final ConcurrentSkipListMap<String, UUID> plates = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile boolean warm;
+
+    public ParkingSpotPlateIndex(ParkingSpotRepository parkingSpotRepository,
+                                 @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor taskExecutor,
+                                 @Value("${parking-control.plate-index.load-chunk-size:10000}") int loadChunkSize) {
+        this.parkingSpotRepository = parkingSpotRepository;
+        this.taskExecutor = taskExecutor;
+        this.loadChunkSize = loadChunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        taskExecutor.execute(this::rebuild);
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public int size() {
+        return plates.size();
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            warm = false;
+            plates.clear();
+            trigrams.clear();
+            var lastId = new UUID(0, 0);
+            List<ParkingSpotPlate> chunk;
+            do {
+                chunk = parkingSpotRepository.findPlatesAfter(lastId, PageRequest.of(0, loadChunkSize));
+                for (ParkingSpotPlate plate : chunk) {
+                    add(plate.licensePlateCar(), plate.id());
+                    lastId = plate.id();
+                }
+            } while (chunk.size() == loadChunkSize);
+            warm = true;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Ids of up to limit plates matching query, in plate order
+    public List<UUID> search(String query, Match match, int limit) {
+        // Prefix and short substring queries walk the sorted map and can stop early; trigram postings are unordered
+        boolean sorted = match == Match.PREFIX || query.length() < GRAM;
+        Collection<String> candidates = match == Match.PREFIX ? plates.tailMap(query).keySet()
+            : sorted ? plates.keySet()
+            : rarestTrigramPostings(query);
+        var matches = new ArrayList<String>();
+        for (String plate : candidates) {
+            if (match == Match.PREFIX && !plate.startsWith(query)) {
+                break;
+            }
+            if (plate.contains(query)) {
+                matches.add(plate);
+                if (sorted && matches.size() == limit) {
+                    break;
+                }
+            }
+        }
+        if (!sorted) {
+            Collections.sort(matches);
+        }
+        return matches.stream()
+            .limit(limit)
+            .map(plates::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    private Collection<String> rarestTrigramPostings(String query) {
+        Set<String> rarest = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Set<String> postings = trigrams.get(query.substring(i, i + GRAM));
+            if (postings == null) {
+                return List.of();
+            }
+            if (rarest == null || postings.size() < rarest.size()) {
+                rarest = postings;
+            }
+        }
+        return rarest;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onParkingSpotChanged(ParkingSpotChangedEvent event) {
+        ParkingSpot before = event.before();
+        ParkingSpot after = event.after();
+        if (before != null && (after == null || !before.getLicensePlateCar().equals(after.getLicensePlateCar()))) {
+            remove(before.getLicensePlateCar(), before.getId());
+        }
+        if (after != null) {
+            add(after.getLicensePlateCar(), after.getId());
+        }
+    }
+
+    private void add(String plate, UUID id) {
+        plates.put(plate, id);
+        for (int i = 0; i + GRAM <= plate.length(); i++) {
+            trigrams.compute(plate.substring(i, i + GRAM), (trigram, postings) -> {
+                Set<String> updated = postings != null ? postings : ConcurrentHashMap.newKeySet();
+                updated.add(plate);
+                return updated;
+            });
+        }
+    }
+
+    private void remove(String plate, UUID id) {
+        if (!plates.remove(plate, id)) {
+            return;
+        }
+        for (int i = 0; i + GRAM <= plate.length(); i++) {
+            trigrams.computeIfPresent(plate.substring(i, i + GRAM), (trigram, postings) -> {
+                postings.remove(plate);
+                return postings.isEmpty() ? null : postings;
+            });
+        }
+    }
+}
@@ -1,68 +1,369 @@
 package com.api.parkingcontrol.services;
 
+import com.api.parkingcontrol.dtos.ParkingSpotBatchResultDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotCursorPageDTO;
 import com.api.parkingcontrol.dtos.ParkingSpotDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotOccupancyDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotResponseDTO;
 import com.api.parkingcontrol.entities.ParkingSpot;
+import com.api.parkingcontrol.repositories.ParkingSpotCursor;
 import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.api.parkingcontrol.repositories.ParkingSpotSortKey;
+import com.api.parkingcontrol.services.events.ParkingSpotChangedEvent;
+import com.api.parkingcontrol.services.exceptions.InvalidCursorException;
 import com.api.parkingcontrol.services.exceptions.ObjectConflictException;
 import com.api.parkingcontrol.services.exceptions.ObjectNotFoundException;
-import jakarta.transaction.Transactional;
+import com.api.parkingcontrol.services.exceptions.PreconditionFailedException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.OutputStream;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ParkingSpotService {
     final ParkingSpotRepository parkingSpotRepository;
+    final ParkingSpotCache parkingSpotCache;
+    final ParkingSpotOccupancy parkingSpotOccupancy;
+    final ParkingSpotPlateIndex parkingSpotPlateIndex;
+    final ParkingSpotExporter parkingSpotExporter;
+    final ApplicationEventPublisher eventPublisher;
+    final TransactionTemplate transactionTemplate;
+    final int batchSize;
+    final boolean softDelete;
 
-    public ParkingSpotService(ParkingSpotRepository parkingSpotRepository) {
+    public ParkingSpotService(ParkingSpotRepository parkingSpotRepository, ParkingSpotCache parkingSpotCache,
+                              ParkingSpotOccupancy parkingSpotOccupancy, ParkingSpotPlateIndex parkingSpotPlateIndex,
+                              ParkingSpotExporter parkingSpotExporter, ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                              @Value("${parking-control.soft-delete.enabled:false}") boolean softDelete) {
         this.parkingSpotRepository = parkingSpotRepository;
+        this.parkingSpotCache = parkingSpotCache;
+        this.parkingSpotOccupancy = parkingSpotOccupancy;
+        this.parkingSpotPlateIndex = parkingSpotPlateIndex;
+        this.parkingSpotExporter = parkingSpotExporter;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.softDelete = softDelete;
     }
 
-    public Page<ParkingSpot> findAll(Pageable pageable) {
-        return parkingSpotRepository.findAll(pageable);
+    // Read-only transactions are served by the replica when one is configured (see ReadReplicaConfig)
+    @Transactional(readOnly = true)
+    public Page<ParkingSpotResponseDTO> findAll(Pageable pageable) {
+        return parkingSpotRepository.findAllResponses(pageable);
     }
 
-    public ParkingSpot findById(UUID id) {
+    @Transactional(readOnly = true)
+    public ParkingSpotCursorPageDTO findAll(String cursorToken, ParkingSpotSortKey sortKey, Sort.Direction direction, int size) {
+        ParkingSpotCursor cursor = decodeCursor(cursorToken);
+        if (cursor != null && (cursor.sortKey() != sortKey || cursor.direction() != direction)) {
+            throw new InvalidCursorException("Cursor was issued for sort " + cursor.sortKey().getProperty() + "," + cursor.direction());
+        }
+        List<ParkingSpotResponseDTO> parkingSpots = parkingSpotRepository.findAllAfter(cursor, sortKey, direction, size + 1);
+        String nextCursor = null;
+        if (parkingSpots.size() > size) {
+            parkingSpots = parkingSpots.subList(0, size);
+            ParkingSpotResponseDTO last = parkingSpots.get(size - 1);
+            nextCursor = new ParkingSpotCursor(sortKey, direction, sortKeyValue(last, sortKey), last.getId()).encode();
+        }
+        return new ParkingSpotCursorPageDTO(parkingSpots, nextCursor);
+    }
+
+    private ParkingSpotCursor decodeCursor(String cursorToken) {
+        if (cursorToken == null || cursorToken.isBlank()) {
+            return null;
+        }
+        try {
+            return ParkingSpotCursor.decode(cursorToken);
+        } catch (IllegalArgumentException | DateTimeException exc) {
+            // DateTimeException: a tampered registrationDate value
+            throw new InvalidCursorException("Cursor " + cursorToken + " is invalid");
+        }
+    }
+
+    private static Comparable<?> sortKeyValue(ParkingSpotResponseDTO parkingSpot, ParkingSpotSortKey sortKey) {
+        return switch (sortKey) {
+            case ID -> parkingSpot.getId();
+            case REGISTRATION_DATE -> parkingSpot.getRegistrationDate();
+            case PARKING_SPOT_NUMBER -> parkingSpot.getParkingSpotNumber();
+        };
+    }
+
+    public void export(ParkingSpotExporter.Format format, OutputStream outputStream) {
+        parkingSpotExporter.export(format, outputStream);
+    }
+
+    public ParkingSpotOccupancyDTO getOccupancy() {
+        return parkingSpotOccupancy.summary();
+    }
+
+    // Plates are stored in upper case (ParkingSpot.setLicensePlateCar), so the query is upper-cased too. While the
+    // index is cold, prefix searches use the text_pattern_ops index (V3) and contains searches the trigram one (V6). Index hits are re-read from the database and re-checked,
+    // which drops entries the index has not caught up with yet.
+    @Transactional(readOnly = true)
+    public List<ParkingSpotResponseDTO> searchByLicensePlateCar(String query, ParkingSpotPlateIndex.Match match, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        String normalizedQuery = query.trim().toUpperCase(Locale.ROOT);
+        if (!parkingSpotPlateIndex.isWarm()) {
+            String pattern = escapeLike(normalizedQuery) + "%";
+            return parkingSpotRepository.findResponsesByLicensePlateCarLike(match == ParkingSpotPlateIndex.Match.PREFIX ? pattern : "%" + pattern,
+                PageRequest.of(0, limit));
+        }
+        List<UUID> ids = parkingSpotPlateIndex.search(normalizedQuery, match, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return parkingSpotRepository.findResponsesByIdIn(ids).stream()
+            .filter(parkingSpot -> match == ParkingSpotPlateIndex.Match.PREFIX
+                ? parkingSpot.getLicensePlateCar().startsWith(normalizedQuery)
+                : parkingSpot.getLicensePlateCar().contains(normalizedQuery))
+            .sorted(Comparator.comparing(ParkingSpotResponseDTO::getLicensePlateCar))
+            .toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Not read-only: the cache is only invalidated by commits on the primary, so it must not be filled from a lagging replica
+    public ParkingSpotResponseDTO findById(UUID id) {
+        Optional<ParkingSpotResponseDTO> parkingSpotOptional = Optional.ofNullable(parkingSpotCache.findById(id));
+        return parkingSpotOptional.orElseThrow(() -> objectNotFound(id));
+    }
+
+    private ParkingSpot findEntityById(UUID id) {
         Optional<ParkingSpot> parkingSpotOptional = parkingSpotRepository.findById(id);
-        return parkingSpotOptional.orElseThrow(() -> new ObjectNotFoundException("Object with identifier " + id + " not found."));
+        return parkingSpotOptional.orElseThrow(() -> objectNotFound(id));
+    }
+
+    private ObjectNotFoundException objectNotFound(UUID id) {
+        return new ObjectNotFoundException("Object with identifier " + id + " not found.");
     }
 
     @Transactional
-    public ParkingSpot save(ParkingSpotDTO parkingSpotDTO) {
-        if (existsByLicensePlateCar(parkingSpotDTO.getLicensePlateCar())) {
-            throw new ObjectConflictException("License Plate Car " +  parkingSpotDTO.getLicensePlateCar() + " is already in use");
+    public ParkingSpotResponseDTO save(ParkingSpotDTO parkingSpotDTO) {
+        checkConflicts(parkingSpotDTO);
+        var parkingSpotEntity = new ParkingSpot();
+        BeanUtils.copyProperties(parkingSpotDTO, parkingSpotEntity);
+        parkingSpotEntity.setRegistrationDate(LocalDateTime.now(ZoneId.of("UTC")));
+        var savedParkingSpot = saveAndFlush(parkingSpotEntity);
+        eventPublisher.publishEvent(ParkingSpotChangedEvent.created(savedParkingSpot));
+        return ParkingSpotResponseDTO.of(savedParkingSpot);
+    }
+
+    // Each JDBC batch is written in its own transaction, so the persistence context does not grow with the request
+    // and a unique constraint violation (a registration that raced the check below) only rolls back its own chunk.
+    // That chunk is then retried one item per transaction and only the colliding items are reported as CONFLICT.
+    public List<ParkingSpotBatchResultDTO> saveAll(List<ParkingSpotDTO> parkingSpotDTOs) {
+        Set<String> licensePlateCars = new HashSet<>();
+        Set<String> parkingSpotNumbers = new HashSet<>();
+        Set<String> apartmentsAndBlocks = new HashSet<>();
+        for (ParkingSpot existingParkingSpot : findExisting(parkingSpotDTOs)) {
+            licensePlateCars.add(existingParkingSpot.getLicensePlateCar());
+            parkingSpotNumbers.add(existingParkingSpot.getParkingSpotNumber());
+            apartmentsAndBlocks.add(apartmentAndBlockKey(existingParkingSpot.getApartment(), existingParkingSpot.getBlock()));
         }
-        if (existsByParkingSpotNumber(parkingSpotDTO.getParkingSpotNumber())) {
-            throw new ObjectConflictException("Parking Spot " + parkingSpotDTO.getParkingSpotNumber() + " is already in use");
+
+        var results = new ParkingSpotBatchResultDTO[parkingSpotDTOs.size()];
+        var parkingSpotEntities = new ArrayList<ParkingSpot>(parkingSpotDTOs.size());
+        var createdIndexes = new ArrayList<Integer>(parkingSpotDTOs.size());
+        var registrationDate = LocalDateTime.now(ZoneId.of("UTC"));
+        for (int i = 0; i < parkingSpotDTOs.size(); i++) {
+            ParkingSpotDTO parkingSpotDTO = parkingSpotDTOs.get(i);
+            ObjectConflictException conflict = null;
+            if (!licensePlateCars.add(parkingSpotDTO.getLicensePlateCar())) {
+                conflict = licensePlateCarConflict(parkingSpotDTO);
+            } else if (!parkingSpotNumbers.add(parkingSpotDTO.getParkingSpotNumber())) {
+                licensePlateCars.remove(parkingSpotDTO.getLicensePlateCar());
+                conflict = parkingSpotNumberConflict(parkingSpotDTO);
+            } else if (!apartmentsAndBlocks.add(apartmentAndBlockKey(parkingSpotDTO.getApartment(), parkingSpotDTO.getBlock()))) {
+                licensePlateCars.remove(parkingSpotDTO.getLicensePlateCar());
+                parkingSpotNumbers.remove(parkingSpotDTO.getParkingSpotNumber());
+                conflict = apartmentAndBlockConflict(parkingSpotDTO);
+            }
+            if (conflict != null) {
+                results[i] = ParkingSpotBatchResultDTO.conflict(i, conflict.getMessage());
+                continue;
+            }
+            parkingSpotEntities.add(newParkingSpot(parkingSpotDTO, registrationDate));
+            createdIndexes.add(i);
         }
-        if (existsByApartmentAndBlock(parkingSpotDTO.getApartment(), parkingSpotDTO.getBlock())) {
-            throw new ObjectConflictException("Parking Spot already registered for apartment " + parkingSpotDTO.getApartment() + " and block " + parkingSpotDTO.getBlock());
+
+        for (int from = 0; from < parkingSpotEntities.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, parkingSpotEntities.size());
+            List<ParkingSpot> chunk = parkingSpotEntities.subList(from, to);
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(chunk));
+            } catch (DataIntegrityViolationException exc) {
+                for (int i = from; i < to; i++) {
+                    int index = createdIndexes.get(i);
+                    results[index] = saveOne(index, parkingSpotDTOs.get(index), registrationDate);
+                }
+                continue;
+            }
+            for (int i = from; i < to; i++) {
+                int index = createdIndexes.get(i);
+                results[index] = ParkingSpotBatchResultDTO.created(index, parkingSpotEntities.get(i).getId());
+            }
         }
+        return Arrays.asList(results);
+    }
+
+    // Stored parking spots sharing a unique key with any of parkingSpotDTOs. Read-write, so the check runs on the
+    // primary even when a replica is configured.
+    public List<ParkingSpot> findExisting(List<ParkingSpotDTO> parkingSpotDTOs) {
+        return transactionTemplate.execute(status -> parkingSpotRepository.findAllConflicts(
+            collect(parkingSpotDTOs, ParkingSpotDTO::getLicensePlateCar), collect(parkingSpotDTOs, ParkingSpotDTO::getParkingSpotNumber),
+            collect(parkingSpotDTOs, ParkingSpotDTO::getApartment), collect(parkingSpotDTOs, ParkingSpotDTO::getBlock)));
+    }
+
+    // The rolled back chunk's entities may already carry an id and version, so the retry starts from the DTO
+    private ParkingSpotBatchResultDTO saveOne(int index, ParkingSpotDTO parkingSpotDTO, LocalDateTime registrationDate) {
+        var parkingSpotEntity = newParkingSpot(parkingSpotDTO, registrationDate);
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(List.of(parkingSpotEntity)));
+        } catch (DataIntegrityViolationException exc) {
+            if (translateConstraintViolation(exc, parkingSpotEntity) instanceof ObjectConflictException conflict) {
+                return ParkingSpotBatchResultDTO.conflict(index, conflict.getMessage());
+            }
+            throw exc;
+        }
+        return ParkingSpotBatchResultDTO.created(index, parkingSpotEntity.getId());
+    }
+
+    private void insert(List<ParkingSpot> parkingSpotEntities) {
+        parkingSpotRepository.saveAll(parkingSpotEntities);
+        parkingSpotRepository.flush();
+        parkingSpotEntities.forEach(parkingSpot -> eventPublisher.publishEvent(ParkingSpotChangedEvent.created(parkingSpot)));
+    }
+
+    private static ParkingSpot newParkingSpot(ParkingSpotDTO parkingSpotDTO, LocalDateTime registrationDate) {
         var parkingSpotEntity = new ParkingSpot();
         BeanUtils.copyProperties(parkingSpotDTO, parkingSpotEntity);
-        parkingSpotEntity.setRegistrationDate(LocalDateTime.now(ZoneId.of("UTC")));
-        return parkingSpotRepository.save(parkingSpotEntity);
+        parkingSpotEntity.setRegistrationDate(registrationDate);
+        return parkingSpotEntity;
     }
 
+    // One conditional statement: no row affected means there was nothing to delete. With soft deletes the row stays
+    // as a tombstone until ParkingSpotTombstoneCompaction removes it.
     @Transactional
     public void delete(UUID id) {
-        findById(id);
-        parkingSpotRepository.deleteById(id);
+        Optional<ParkingSpot> deleted = softDelete
+            ? parkingSpotRepository.softDeleteReturning(id, LocalDateTime.now(ZoneId.of("UTC")))
+            : parkingSpotRepository.deleteReturning(id);
+        var parkingSpotEntity = deleted.orElseThrow(() -> objectNotFound(id));
+        eventPublisher.publishEvent(ParkingSpotChangedEvent.deleted(parkingSpotEntity));
     }
 
+    // expectedVersions (from If-Match) are optional; the version column catches concurrent updates either way
     @Transactional
-    public ParkingSpot update(UUID id, ParkingSpotDTO parkingSpotDTO) {
-        var parkingSpotEntity = findById(id);
+    public ParkingSpotResponseDTO update(UUID id, ParkingSpotDTO parkingSpotDTO, Set<Long> expectedVersions) {
+        var parkingSpotEntity = findEntityById(id);
+        if (expectedVersions != null && !expectedVersions.contains(parkingSpotEntity.getVersion())) {
+            throw versionMismatch(id, expectedVersions);
+        }
+        var before = ParkingSpotChangedEvent.snapshot(parkingSpotEntity);
         updateData(parkingSpotEntity, parkingSpotDTO);
-        return parkingSpotRepository.save(parkingSpotEntity);
+        ParkingSpot savedParkingSpot;
+        try {
+            savedParkingSpot = saveAndFlush(parkingSpotEntity);
+        } catch (OptimisticLockingFailureException exc) {
+            if (expectedVersions != null) {
+                throw versionMismatch(id, expectedVersions);
+            }
+            throw new ObjectConflictException("Parking Spot " + id + " was modified concurrently");
+        }
+        eventPublisher.publishEvent(ParkingSpotChangedEvent.updated(before, savedParkingSpot));
+        return ParkingSpotResponseDTO.of(savedParkingSpot);
+    }
+
+    private PreconditionFailedException versionMismatch(UUID id, Set<Long> expectedVersions) {
+        return new PreconditionFailedException("Parking Spot " + id + " is no longer at version "
+            + expectedVersions.stream().sorted().map(String::valueOf).collect(Collectors.joining(" or ")));
+    }
+
+    public void checkConflicts(ParkingSpotDTO parkingSpotDTO) {
+        List<ParkingSpot> conflicts = parkingSpotRepository.findConflicts(
+            parkingSpotDTO.getLicensePlateCar(), parkingSpotDTO.getParkingSpotNumber(), parkingSpotDTO.getApartment(), parkingSpotDTO.getBlock());
+        if (conflicts.stream().anyMatch(p -> p.getLicensePlateCar().equals(parkingSpotDTO.getLicensePlateCar()))) {
+            throw licensePlateCarConflict(parkingSpotDTO);
+        }
+        if (conflicts.stream().anyMatch(p -> p.getParkingSpotNumber().equals(parkingSpotDTO.getParkingSpotNumber()))) {
+            throw parkingSpotNumberConflict(parkingSpotDTO);
+        }
+        if (!conflicts.isEmpty()) {
+            throw apartmentAndBlockConflict(parkingSpotDTO);
+        }
+    }
+
+    // The pre-check above is racy under concurrent writes, so unique constraint violations are translated too.
+    private ParkingSpot saveAndFlush(ParkingSpot parkingSpotEntity) {
+        try {
+            return parkingSpotRepository.saveAndFlush(parkingSpotEntity);
+        } catch (DataIntegrityViolationException exc) {
+            throw translateConstraintViolation(exc, parkingSpotEntity);
+        }
+    }
+
+    private static Set<String> collect(List<ParkingSpotDTO> parkingSpotDTOs, Function<ParkingSpotDTO, String> getter) {
+        return parkingSpotDTOs.stream().map(getter).collect(Collectors.toSet());
+    }
+
+    static String apartmentAndBlockKey(String apartment, String block) {
+        return apartment + '\u0000' + block;
+    }
+
+    private RuntimeException translateConstraintViolation(DataIntegrityViolationException exc, ParkingSpot parkingSpotEntity) {
+        var parkingSpotDTO = new ParkingSpotDTO();
+        BeanUtils.copyProperties(parkingSpotEntity, parkingSpotDTO);
+        String constraintName = exc.getCause() instanceof ConstraintViolationException cve && cve.getConstraintName() != null
+            ? cve.getConstraintName().toLowerCase()
+            : "";
+        if (constraintName.contains(ParkingSpot.UK_LICENSE_PLATE_CAR)) {
+            return licensePlateCarConflict(parkingSpotDTO);
+        }
+        if (constraintName.contains(ParkingSpot.UK_PARKING_SPOT_NUMBER)) {
+            return parkingSpotNumberConflict(parkingSpotDTO);
+        }
+        if (constraintName.contains(ParkingSpot.UK_APARTMENT_BLOCK)) {
+            return apartmentAndBlockConflict(parkingSpotDTO);
+        }
+        return exc;
+    }
+
+    ObjectConflictException licensePlateCarConflict(ParkingSpotDTO parkingSpotDTO) {
+        return new ObjectConflictException("License Plate Car " +  parkingSpotDTO.getLicensePlateCar() + " is already in use");
+    }
+
+    ObjectConflictException parkingSpotNumberConflict(ParkingSpotDTO parkingSpotDTO) {
+        return new ObjectConflictException("Parking Spot " + parkingSpotDTO.getParkingSpotNumber() + " is already in use");
+    }
+
+    ObjectConflictException apartmentAndBlockConflict(ParkingSpotDTO parkingSpotDTO) {
+        return new ObjectConflictException("Parking Spot already registered for apartment " + parkingSpotDTO.getApartment() + " and block " + parkingSpotDTO.getBlock());
     }
 
     private void updateData(ParkingSpot parkingSpotEntity, ParkingSpotDTO parkingSpotDTO) {
@@ -77,14 +378,14 @@ public class ParkingSpotService {
     }
 
     public boolean existsByLicensePlateCar(String licensePlateCar) {
-        return parkingSpotRepository.existsByLicensePlateCar(licensePlateCar);
+        return parkingSpotCache.existsByLicensePlateCar(licensePlateCar);
     }
 
     public boolean existsByParkingSpotNumber(String parkingSpotNumber) {
-        return parkingSpotRepository.existsByParkingSpotNumber(parkingSpotNumber);
+        return parkingSpotCache.existsByParkingSpotNumber(parkingSpotNumber);
     }
 
     public boolean existsByApartmentAndBlock(String apartment, String block) {
-        return parkingSpotRepository.existsByApartmentAndBlock(apartment, block);
+        return parkingSpotCache.existsByApartmentAndBlock(apartment, block);
     }
 }
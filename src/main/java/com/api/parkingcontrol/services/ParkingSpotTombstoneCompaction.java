@@ -0,0 +1,62 @@
+package com.api.parkingcontrol.services;
+
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Removes the tombstones soft deletes leave behind once they are older than the retention. Each batch is its own
+// short transaction, so row locks are held for one batch at a time rather than for the whole backlog.
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "parking-control.soft-delete.enabled", havingValue = "true")
+public class ParkingSpotTombstoneCompaction {
+    private static final Logger log = LoggerFactory.getLogger(ParkingSpotTombstoneCompaction.class);
+
+    final ParkingSpotRepository parkingSpotRepository;
+    final TransactionTemplate transactionTemplate;
+    final Duration retention;
+    final int batchSize;
+    final Counter compacted;
+
+    public ParkingSpotTombstoneCompaction(ParkingSpotRepository parkingSpotRepository, PlatformTransactionManager transactionManager,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${parking-control.soft-delete.retention:1h}") Duration retention,
+                                          @Value("${parking-control.soft-delete.compaction-batch-size:500}") int batchSize) {
+        this.parkingSpotRepository = parkingSpotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.compacted = meterRegistry.counter("parking.spot.tombstones.compacted");
+    }
+
+    // Returns the number of tombstones removed
+    @Scheduled(fixedDelayString = "${parking-control.soft-delete.compaction-interval:PT5M}",
+        initialDelayString = "${parking-control.soft-delete.compaction-interval:PT5M}")
+    public int compact() {
+        LocalDateTime deletedBefore = LocalDateTime.now(ZoneId.of("UTC")).minus(retention);
+        int total = 0;
+        int removed;
+        do {
+            removed = transactionTemplate.execute(status -> parkingSpotRepository.deleteTombstones(deletedBefore, batchSize));
+            total += removed;
+            compacted.increment(removed);
+        } while (removed == batchSize);
+        if (total > 0) {
+            log.info("Compacted {} parking spot tombstones deleted before {}", total, deletedBefore);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,33 @@
+package com.api.parkingcontrol.services.events;
+
+import com.api.parkingcontrol.entities.ParkingSpot;
+import org.springframework.beans.BeanUtils;
+
+import java.util.UUID;
+
+// Published by ParkingSpotService inside the write transaction; before/after are detached snapshots.
+public record ParkingSpotChangedEvent(Type type, UUID id, ParkingSpot before, ParkingSpot after) {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static ParkingSpotChangedEvent created(ParkingSpot parkingSpot) {
+        return new ParkingSpotChangedEvent(Type.CREATED, parkingSpot.getId(), null, snapshot(parkingSpot));
+    }
+
+    public static ParkingSpotChangedEvent updated(ParkingSpot before, ParkingSpot after) {
+        return new ParkingSpotChangedEvent(Type.UPDATED, after.getId(), before, snapshot(after));
+    }
+
+    public static ParkingSpotChangedEvent deleted(ParkingSpot before) {
+        return new ParkingSpotChangedEvent(Type.DELETED, before.getId(), before, null);
+    }
+
+    public static ParkingSpot snapshot(ParkingSpot parkingSpot) {
+        var copy = new ParkingSpot();
+        BeanUtils.copyProperties(parkingSpot, copy);
+        return copy;
+    }
+}
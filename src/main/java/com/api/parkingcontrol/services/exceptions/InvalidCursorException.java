@@ -0,0 +1,7 @@
+package com.api.parkingcontrol.services.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
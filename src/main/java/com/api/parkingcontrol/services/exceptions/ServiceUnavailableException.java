@@ -0,0 +1,7 @@
+package com.api.parkingcontrol.services.exceptions;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
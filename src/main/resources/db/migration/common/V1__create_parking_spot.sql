@@ -0,0 +1,21 @@
+-- The parking_spot table with named unique constraints and the version column. Databases created by the former
+-- spring.jpa.hibernate.ddl-auto=update are baselined at this version without running it; their table differs (hash-named
+-- constraints, no apartment/block constraint, possibly no version column) and migration 1.1
+-- (ParkingSpotSchemaNormalization) brings it in line.
+create table parking_spot (
+    id uuid not null,
+    parking_spot_number varchar(10) not null,
+    license_plate_car varchar(7) not null,
+    brand_car varchar(70) not null,
+    model_car varchar(70) not null,
+    color_car varchar(70) not null,
+    registration_date timestamp(6) not null,
+    responsible_name varchar(130) not null,
+    apartment varchar(30) not null,
+    block varchar(30) not null,
+    version bigint default 0 not null,
+    constraint pk_parking_spot primary key (id),
+    constraint uk_parking_spot_parking_spot_number unique (parking_spot_number),
+    constraint uk_parking_spot_license_plate_car unique (license_plate_car),
+    constraint uk_parking_spot_apartment_block unique (apartment, block)
+);
@@ -0,0 +1,2 @@
+-- Listing and cursor pagination sorted by registration date, with the id as tie-breaker
+create index idx_parking_spot_registration_date_id on parking_spot (registration_date, id);
@@ -0,0 +1,19 @@
+-- Tombstones for parking-control.soft-delete.enabled: a deleted row keeps deleted_at and loses active until the
+-- compaction job removes it. active is true on live rows and null on tombstones, and nulls never collide in a
+-- unique constraint, so the uniqueness rules only hold among live rows.
+alter table parking_spot add column deleted_at timestamp(6);
+alter table parking_spot add column active boolean default true;
+alter table parking_spot add constraint ck_parking_spot_tombstone
+    check (active = true and deleted_at is null or active is null and deleted_at is not null);
+
+-- The constraints are dropped by name: tables baselined from ddl-auto only have these names once migration 1.1
+-- (ParkingSpotSchemaNormalization) has run, which Flyway orders before this script
+alter table parking_spot drop constraint uk_parking_spot_parking_spot_number;
+alter table parking_spot add constraint uk_parking_spot_parking_spot_number unique (parking_spot_number, active);
+alter table parking_spot drop constraint uk_parking_spot_license_plate_car;
+alter table parking_spot add constraint uk_parking_spot_license_plate_car unique (license_plate_car, active);
+alter table parking_spot drop constraint uk_parking_spot_apartment_block;
+alter table parking_spot add constraint uk_parking_spot_apartment_block unique (apartment, block, active);
+
+-- Compaction picks the oldest tombstones
+create index idx_parking_spot_deleted_at on parking_spot (deleted_at);
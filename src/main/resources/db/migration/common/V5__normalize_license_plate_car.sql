@@ -0,0 +1,4 @@
+-- Plates are stored in upper case (ParkingSpot.setLicensePlateCar) and searched that way. Rows written before
+-- that keep their case until this runs; two live plates that only differ in case make it fail on
+-- uk_parking_spot_license_plate_car, and one of them has to be changed or removed before migrating again.
+update parking_spot set license_plate_car = upper(license_plate_car) where license_plate_car <> upper(license_plate_car);
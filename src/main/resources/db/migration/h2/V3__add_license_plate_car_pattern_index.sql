@@ -0,0 +1 @@
+-- H2 already serves LIKE 'prefix%' from uk_parking_spot_license_plate_car
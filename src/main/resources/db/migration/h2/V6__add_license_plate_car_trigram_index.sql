@@ -0,0 +1 @@
+-- H2 has no trigram index: contains searches scan the table while the plate index warms up
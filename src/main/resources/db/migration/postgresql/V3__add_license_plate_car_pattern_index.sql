@@ -0,0 +1,2 @@
+-- Lets LIKE 'prefix%' plate searches use an index whatever the database collation
+create index idx_parking_spot_license_plate_car_pattern on parking_spot (license_plate_car text_pattern_ops);
@@ -0,0 +1,6 @@
+-- Contains searches (LIKE '%text%') run against the database while ParkingSpotPlateIndex is warming up; a leading
+-- wildcard cannot use the text_pattern_ops index from V3, so they get a trigram index. Queries shorter than three
+-- characters have no trigram to look up and still read the whole index. pg_trgm is a trusted extension
+-- (PostgreSQL 13+), so the database owner can create it; on older servers it has to be created by a superuser.
+create extension if not exists pg_trgm;
+create index idx_parking_spot_license_plate_car_trigram on parking_spot using gin (license_plate_car gin_trgm_ops);
@@ -0,0 +1,103 @@
+package com.api.parkingcontrol;
+
+import com.api.parkingcontrol.services.AdaptiveConcurrencyLimit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, classes = ParkingControlApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-integrationtest.properties",
+    properties = {"parking-control.admission.enabled=true", "parking-control.admission.rate-per-second=0.1", "parking-control.admission.burst=2",
+        "parking-control.trusted-proxies=" + ParkingSpotAdmissionControlIntegrationTest.TRUSTED_PROXY})
+public class ParkingSpotAdmissionControlIntegrationTest {
+    static final String TRUSTED_PROXY = "10.0.0.254";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    public void givenClientOverItsRate_whenGetParkingSpots_thenStatus429AndOtherClientsAreAdmitted() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get("/parking-spot").with(remoteAddr("10.0.0.1")))
+                .andExpect(status().isOk());
+        }
+        mvc.perform(get("/parking-spot").with(remoteAddr("10.0.0.1")))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "10"))
+            .andExpect(jsonPath("$.status", is(429)))
+            .andExpect(jsonPath("$.error", is("Too many requests")))
+            .andExpect(jsonPath("$.path", is("/parking-spot")));
+
+        mvc.perform(get("/parking-spot").with(remoteAddr("10.0.0.2")))
+            .andExpect(status().isOk());
+        mvc.perform(get("/actuator/health").with(remoteAddr("10.0.0.1")))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    public void givenClientIdHeader_whenGetParkingSpots_thenOnlyTrustedProxiesChooseTheBucket() throws Exception {
+        // A fresh client id per request does not get an untrusted client a fresh bucket
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get("/parking-spot").with(remoteAddr("10.0.0.3")).header("X-Client-Id", "spoofed-" + i))
+                .andExpect(status().isOk());
+        }
+        mvc.perform(get("/parking-spot").with(remoteAddr("10.0.0.3")).header("X-Client-Id", "spoofed-2"))
+            .andExpect(status().isTooManyRequests());
+
+        // Behind the trusted proxy each forwarded client has its own bucket
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get("/parking-spot").with(remoteAddr(TRUSTED_PROXY)).header("X-Client-Id", "proxied-client"))
+                .andExpect(status().isOk());
+        }
+        mvc.perform(get("/parking-spot").with(remoteAddr(TRUSTED_PROXY)).header("X-Client-Id", "proxied-client"))
+            .andExpect(status().isTooManyRequests());
+        mvc.perform(get("/parking-spot").with(remoteAddr(TRUSTED_PROXY)).header("X-Client-Id", "other-proxied-client"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    public void givenSlowResponses_whenReleaseConcurrencyLimit_thenLimitBacksOffAndRecovers() {
+        long threshold = TimeUnit.MILLISECONDS.toNanos(100);
+        var limit = new AdaptiveConcurrencyLimit(4, 2, 8, threshold, 0.5);
+        for (int i = 0; i < 4; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release(threshold * 2, false);
+        assertThat(limit.getLimit()).isEqualTo(2);
+        // One decrease per threshold window, however many slow responses arrive together
+        limit.release(threshold * 2, false);
+        assertThat(limit.getLimit()).isEqualTo(2);
+        assertThat(limit.getInFlight()).isEqualTo(2);
+        assertThat(limit.tryAcquire()).isFalse();
+
+        for (int i = 0; i < 20; i++) {
+            limit.release(0, false);
+            limit.tryAcquire();
+        }
+        assertThat(limit.getLimit()).isGreaterThan(2);
+    }
+
+    private static RequestPostProcessor remoteAddr(String remoteAddr) {
+        return request -> {
+            request.setRemoteAddr(remoteAddr);
+            return request;
+        };
+    }
+}
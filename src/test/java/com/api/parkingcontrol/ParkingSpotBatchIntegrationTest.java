@@ -0,0 +1,79 @@
+package com.api.parkingcontrol;
+
+import com.api.parkingcontrol.dtos.ParkingSpotBatchDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotDTO;
+import com.api.parkingcontrol.services.events.ParkingSpotChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Chunks of two items; writing the first chunk registers a plate of the second one behind the batch's conflict check
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, classes = ParkingControlApplication.class)
+@AutoConfigureMockMvc
+@Import(ParkingSpotBatchIntegrationTest.RacingRegistration.class)
+@TestPropertySource(locations = "classpath:application-integrationtest.properties", properties = {
+    "spring.datasource.url=jdbc:h2:mem:batch;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.jdbc.batch_size=2"})
+public class ParkingSpotBatchIntegrationTest {
+    private static final String RACING_PLATE = "BAT0003";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class RacingRegistration {
+        @Autowired JdbcTemplate jdbcTemplate;
+
+        @EventListener
+        public void onChanged(ParkingSpotChangedEvent event) {
+            if (event.type() == ParkingSpotChangedEvent.Type.CREATED && event.after().getLicensePlateCar().equals("BAT0001")) {
+                jdbcTemplate.update("insert into parking_spot (id, parking_spot_number, license_plate_car, brand_car, model_car, "
+                    + "color_car, registration_date, responsible_name, apartment, block, version) "
+                    + "values (?, '900', ?, 'Audi', 'Q5', 'Black', current_timestamp, 'Racer', '900', '9', 0)",
+                    UUID.randomUUID(), RACING_PLATE);
+            }
+        }
+    }
+
+    @Test
+    public void givenRegistrationRacingTheBatch_whenCreateParkingSpotBatch_thenOnlyTheCollidingItemConflicts() throws Exception {
+        var parkingSpotBatchDTO = new ParkingSpotBatchDTO(List.of(
+            new ParkingSpotDTO("101", "BAT0001", "Audi", "Q5", "Black", "Test", "101", "1"),
+            new ParkingSpotDTO("102", "BAT0002", "Audi", "Q5", "Black", "Test", "102", "1"),
+            new ParkingSpotDTO("103", RACING_PLATE, "Audi", "Q5", "Black", "Test", "103", "1"),
+            new ParkingSpotDTO("104", "BAT0004", "Audi", "Q5", "Black", "Test", "104", "1"),
+            new ParkingSpotDTO("105", "BAT0005", "Audi", "Q5", "Black", "Test", "105", "1")
+        ));
+        mvc.perform(post("/parking-spot/batch").contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(parkingSpotBatchDTO)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].status", contains("CREATED", "CREATED", "CONFLICT", "CREATED", "CREATED")))
+            .andExpect(jsonPath("$[2].message", is("License Plate Car " + RACING_PLATE + " is already in use")))
+            .andExpect(jsonPath("$[3].id", notNullValue()));
+
+        assertThat(jdbcTemplate.queryForList("select parking_spot_number from parking_spot", String.class))
+            .containsExactlyInAnyOrder("101", "102", "900", "104", "105");
+    }
+}
@@ -0,0 +1,70 @@
+package com.api.parkingcontrol;
+
+import com.api.parkingcontrol.dtos.ParkingSpotBatchDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotPageDTO;
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compression is applied by Tomcat, so this goes through a real connector; HttpClient does not decompress by itself
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = ParkingControlApplication.class)
+@TestPropertySource(locations = "classpath:application-integrationtest.properties",
+    properties = "spring.datasource.url=jdbc:h2:mem:compression;DB_CLOSE_DELAY=-1")
+public class ParkingSpotCompressionIntegrationTest {
+    @LocalServerPort
+    private int port;
+
+    @Autowired ParkingSpotRepository parkingSpotRepository;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @After
+    public void tearDown() {
+        parkingSpotRepository.deleteAll();
+    }
+
+    @Test
+    public void givenPageAboveMinimumSize_whenGetParkingSpots_thenEveryPageTypeIsGzipped() throws Exception {
+        var parkingSpotBatchDTO = new ParkingSpotBatchDTO(IntStream.range(0, 30)
+            .mapToObj(i -> new ParkingSpotDTO("C" + i, "GZP" + (1000 + i), "Audi", "Q5", "Black", "Test", "C" + i, "1"))
+            .toList());
+        HttpResponse<String> saved = httpClient.send(HttpRequest.newBuilder(uri("/parking-spot/batch"))
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .POST(HttpRequest.BodyPublishers.ofString(new ObjectMapper().writeValueAsString(parkingSpotBatchDTO)))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(saved.statusCode()).isEqualTo(200);
+
+        for (String accept : new String[]{ParkingSpotPageDTO.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE}) {
+            HttpResponse<byte[]> page = httpClient.send(HttpRequest.newBuilder(uri("/parking-spot?size=30"))
+                .header(HttpHeaders.ACCEPT, accept)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertThat(page.statusCode()).isEqualTo(200);
+            assertThat(page.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValueSatisfying(contentType -> assertThat(contentType).startsWith(accept));
+            assertThat(page.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).as(accept).hasValue("gzip");
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
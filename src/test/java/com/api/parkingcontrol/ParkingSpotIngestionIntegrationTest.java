@@ -0,0 +1,156 @@
+package com.api.parkingcontrol;
+
+import com.api.parkingcontrol.dtos.ParkingSpotDTO;
+import com.api.parkingcontrol.entities.ParkingSpot;
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.api.parkingcontrol.services.ParkingSpotCache;
+import com.api.parkingcontrol.services.events.ParkingSpotChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, classes = ParkingControlApplication.class)
+@AutoConfigureMockMvc
+@Import(ParkingSpotIngestionIntegrationTest.FailingWrite.class)
+@TestPropertySource(locations = "classpath:application-integrationtest.properties", properties = {
+    "parking-control.ingestion.write-behind=true",
+    "parking-control.ingestion.batch-size=4",
+    "spring.jpa.properties.hibernate.jdbc.batch_size=2"})
+public class ParkingSpotIngestionIntegrationTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired ParkingSpotCache parkingSpotCache;
+
+    // Holds the writer in the transaction of PRT0001 until the next registrations are queued, so they are written as
+    // one batch of two chunks, and fails the second chunk (PRT0004, PRT0005) after the first has committed
+    @TestConfiguration
+    static class FailingWrite {
+        static final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        static final CountDownLatch queueFilled = new CountDownLatch(1);
+
+        @EventListener
+        public void onChanged(ParkingSpotChangedEvent event) throws InterruptedException {
+            if (event.type() != ParkingSpotChangedEvent.Type.CREATED) {
+                return;
+            }
+            if (event.after().getLicensePlateCar().equals("PRT0001")) {
+                firstWriteStarted.countDown();
+                queueFilled.await(10, TimeUnit.SECONDS);
+            } else if (event.after().getLicensePlateCar().equals("PRT0004")) {
+                throw new IllegalStateException("Simulated failure writing PRT0004");
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        parkingSpotRepository.deleteAll();
+        parkingSpotCache.invalidateAll();
+    }
+
+    @Test
+    public void givenWriteBehindMode_whenCreateNewParkingSpot_thenStatus202AndParkingSpotIsWritten() throws Exception {
+        var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
+        String requestJson = new ObjectMapper().writeValueAsString(parkingSpotDTO);
+
+        String trackingId = JsonPath.read(mvc.perform(post("/parking-spot").contentType(MediaType.APPLICATION_JSON).content(requestJson))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("Location", containsString("/parking-spot/ingestion/")))
+            .andExpect(jsonPath("$.status", is("PENDING")))
+            .andReturn().getResponse().getContentAsString(), "$.trackingId");
+
+        // Reserved keys conflict before the first registration is even written
+        parkingSpotDTO.setParkingSpotNumber("2059");
+        mvc.perform(post("/parking-spot").contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isConflict());
+
+        String ingestionStatus = awaitIngestion(trackingId);
+        assertThat((String) JsonPath.read(ingestionStatus, "$.status")).isEqualTo("CREATED");
+        mvc.perform(get("/parking-spot/" + JsonPath.read(ingestionStatus, "$.id")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.licensePlateCar", is("RRS8562")));
+        assertThat(parkingSpotRepository.count()).isEqualTo(1);
+
+        // Once written, the reservations are released and the stored row is what conflicts
+        var storedConflict = new ParkingSpotDTO("2058", "RRS8563", "Audi", "Q5", "Black", "Test", "266", "8");
+        mvc.perform(post("/parking-spot").contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(storedConflict)))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.message", is("Parking Spot 2058 is already in use")));
+    }
+
+    @Test
+    public void givenBatchFailingAfterFirstChunk_whenWrite_thenOnlyUnwrittenRegistrationsFail() throws Exception {
+        List<String> trackingIds = new ArrayList<>();
+        trackingIds.add(submit(1));
+        assertThat(FailingWrite.firstWriteStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        for (int i = 2; i <= 5; i++) {
+            trackingIds.add(submit(i));
+        }
+        FailingWrite.queueFilled.countDown();
+
+        List<String> statuses = new ArrayList<>();
+        for (String trackingId : trackingIds) {
+            statuses.add(JsonPath.read(awaitIngestion(trackingId), "$.status"));
+        }
+        assertThat(statuses).containsExactly("CREATED", "CREATED", "CREATED", "FAILED", "FAILED");
+        assertThat(parkingSpotRepository.findAll()).extracting(ParkingSpot::getLicensePlateCar)
+            .containsExactlyInAnyOrder("PRT0001", "PRT0002", "PRT0003");
+
+        // The failed registrations gave their keys back and can be retried
+        assertThat((String) JsonPath.read(awaitIngestion(submit(5)), "$.status")).isEqualTo("CREATED");
+    }
+
+    @Test
+    public void givenUnknownTrackingId_whenGetIngestionStatus_thenStatus404() throws Exception {
+        mvc.perform(get("/parking-spot/ingestion/" + UUID.randomUUID()))
+            .andExpect(status().isNotFound());
+    }
+
+    private String submit(int i) throws Exception {
+        var parkingSpotDTO = new ParkingSpotDTO("P" + i, "PRT000" + i, "Audi", "Q5", "Black", "Test", "P" + i, "1");
+        return JsonPath.read(mvc.perform(post("/parking-spot").contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isAccepted())
+            .andReturn().getResponse().getContentAsString(), "$.trackingId");
+    }
+
+    private String awaitIngestion(String trackingId) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String ingestionStatus = mvc.perform(get("/parking-spot/ingestion/" + trackingId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            if (!JsonPath.read(ingestionStatus, "$.status").equals("PENDING")) {
+                return ingestionStatus;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Registration " + trackingId + " was not written");
+    }
+}
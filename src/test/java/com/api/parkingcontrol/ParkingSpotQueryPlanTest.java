@@ -0,0 +1,79 @@
+package com.api.parkingcontrol;
+
+import com.api.parkingcontrol.configs.ParkingSpotIndexVerifier;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// EXPLAIN on the migrated H2 schema: each query pattern must be served by its index rather than a table scan.
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, classes = ParkingControlApplication.class)
+@TestPropertySource(locations = "classpath:application-integrationtest.properties")
+public class ParkingSpotQueryPlanTest {
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Autowired DataSource dataSource;
+
+    @Test
+    public void givenLicensePlateCar_whenExplainLookup_thenUseUniqueIndex() {
+        assertThat(explain("select id from parking_spot where license_plate_car = 'RRS8562'"))
+            .contains("UK_PARKING_SPOT_LICENSE_PLATE_CAR")
+            .doesNotContain("tableScan");
+    }
+
+    @Test
+    public void givenLicensePlateCarPrefix_whenExplainSearch_thenUseUniqueIndex() {
+        assertThat(explain("select id from parking_spot where license_plate_car like 'RRS%' order by license_plate_car"))
+            .contains("UK_PARKING_SPOT_LICENSE_PLATE_CAR")
+            .doesNotContain("tableScan");
+    }
+
+    @Test
+    public void givenParkingSpotNumber_whenExplainLookup_thenUseUniqueIndex() {
+        assertThat(explain("select id from parking_spot where parking_spot_number = '2058'"))
+            .contains("UK_PARKING_SPOT_PARKING_SPOT_NUMBER")
+            .doesNotContain("tableScan");
+    }
+
+    @Test
+    public void givenApartmentAndBlock_whenExplainLookup_thenUseCompositeIndex() {
+        assertThat(explain("select id from parking_spot where apartment = '265' and block = '8'"))
+            .contains("UK_PARKING_SPOT_APARTMENT_BLOCK")
+            .doesNotContain("tableScan");
+    }
+
+    @Test
+    public void givenRegistrationDateCursor_whenExplainPage_thenReadIndexInOrder() {
+        assertThat(explain("select id from parking_spot where registration_date > timestamp '2023-05-01 10:00:00'"
+            + " or (registration_date = timestamp '2023-05-01 10:00:00' and id > '00000000-0000-0000-0000-000000000000')"
+            + " order by registration_date, id fetch first 10 rows only"))
+            .contains("IDX_PARKING_SPOT_REGISTRATION_DATE_ID")
+            .contains("index sorted");
+    }
+
+    @Test
+    public void givenMissingIndex_whenVerifyIndexes_thenFailFast() {
+        jdbcTemplate.execute("drop index idx_parking_spot_registration_date_id");
+        try {
+            assertThatThrownBy(() -> new ParkingSpotIndexVerifier(dataSource).afterSingletonsInstantiated())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[registration_date, id]");
+        } finally {
+            jdbcTemplate.execute("create index idx_parking_spot_registration_date_id on parking_spot (registration_date, id)");
+        }
+        new ParkingSpotIndexVerifier(dataSource).afterSingletonsInstantiated();
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+}
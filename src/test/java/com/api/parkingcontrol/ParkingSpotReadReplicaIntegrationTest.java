@@ -0,0 +1,92 @@
+package com.api.parkingcontrol;
+
+import com.api.parkingcontrol.dtos.ParkingSpotDTO;
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.api.parkingcontrol.services.ParkingSpotCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Two in-memory H2 databases stand in for the primary and a replica that has not caught up yet
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, classes = ParkingControlApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-integrationtest.properties", properties = {
+    "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+    "parking-control.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+    "parking-control.datasource.replica.username=sa",
+    "parking-control.datasource.replica.read-your-writes-window=1s",
+    "parking-control.trusted-proxies=127.0.0.1"})
+public class ParkingSpotReadReplicaIntegrationTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired ParkingSpotCache parkingSpotCache;
+
+    @Autowired @Qualifier("replicaDataSource") DataSource replicaDataSource;
+
+    @Before
+    public void setUp() {
+        Flyway.configure()
+            .dataSource(replicaDataSource)
+            .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+            .load()
+            .migrate();
+        new JdbcTemplate(replicaDataSource).update("insert into parking_spot (id, parking_spot_number, license_plate_car, brand_car, model_car, "
+            + "color_car, registration_date, responsible_name, apartment, block, version) "
+            + "values (?, '1001', 'RPL0001', 'Audi', 'Q5', 'Black', current_timestamp, 'Replica', '101', '1', 0)", UUID.randomUUID());
+    }
+
+    @After
+    public void tearDown() {
+        parkingSpotRepository.deleteAll();
+        parkingSpotCache.invalidateAll();
+        new JdbcTemplate(replicaDataSource).update("delete from parking_spot");
+    }
+
+    @Test
+    public void givenRecentWrite_whenGetParkingSpots_thenWriterReadsPrimaryUntilWindowCloses() throws Exception {
+        var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
+        String id = JsonPath.read(mvc.perform(post("/parking-spot").header("X-Client-Id", "writer")
+                .contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString(), "$.id");
+
+        mvc.perform(get("/parking-spot").header("X-Client-Id", "reader"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].licensePlateCar", contains("RPL0001")));
+        mvc.perform(get("/parking-spot").header("X-Client-Id", "writer"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].licensePlateCar", contains("RRS8562")));
+        // Lookups by id are served by the cache, which is only ever filled from the primary
+        mvc.perform(get("/parking-spot/" + id).header("X-Client-Id", "reader"))
+            .andExpect(status().isOk());
+
+        Thread.sleep(1200);
+        mvc.perform(get("/parking-spot").header("X-Client-Id", "writer"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].licensePlateCar", contains("RPL0001")));
+    }
+}
@@ -0,0 +1,99 @@
+package com.api.parkingcontrol;
+
+import com.api.parkingcontrol.dtos.ParkingSpotDTO;
+import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.api.parkingcontrol.services.ParkingSpotCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Write-behind registrations are written by the ingestion thread, outside of the client's request
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, classes = ParkingControlApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-integrationtest.properties", properties = {
+    "spring.datasource.url=jdbc:h2:mem:writebehindprimary;DB_CLOSE_DELAY=-1",
+    "parking-control.datasource.replica.url=jdbc:h2:mem:writebehindreplica;DB_CLOSE_DELAY=-1",
+    "parking-control.datasource.replica.username=sa",
+    "parking-control.datasource.replica.read-your-writes-window=5s",
+    "parking-control.trusted-proxies=127.0.0.1",
+    "parking-control.ingestion.write-behind=true"})
+public class ParkingSpotReadReplicaWriteBehindIntegrationTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired ParkingSpotCache parkingSpotCache;
+
+    @Autowired @Qualifier("replicaDataSource") DataSource replicaDataSource;
+
+    @Before
+    public void setUp() {
+        Flyway.configure()
+            .dataSource(replicaDataSource)
+            .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+            .load()
+            .migrate();
+        new JdbcTemplate(replicaDataSource).update("insert into parking_spot (id, parking_spot_number, license_plate_car, brand_car, model_car, "
+            + "color_car, registration_date, responsible_name, apartment, block, version) "
+            + "values (?, '1001', 'RPL0001', 'Audi', 'Q5', 'Black', current_timestamp, 'Replica', '101', '1', 0)", UUID.randomUUID());
+    }
+
+    @After
+    public void tearDown() {
+        parkingSpotRepository.deleteAll();
+        parkingSpotCache.invalidateAll();
+        new JdbcTemplate(replicaDataSource).update("delete from parking_spot");
+    }
+
+    @Test
+    public void givenWriteBehindRegistration_whenGetParkingSpots_thenSubmittingClientReadsPrimary() throws Exception {
+        var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
+        String trackingId = JsonPath.read(mvc.perform(post("/parking-spot").header("X-Client-Id", "writer")
+                .contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isAccepted())
+            .andReturn().getResponse().getContentAsString(), "$.trackingId");
+        awaitCreated(trackingId);
+
+        mvc.perform(get("/parking-spot").header("X-Client-Id", "writer"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].licensePlateCar", contains("RRS8562")));
+        mvc.perform(get("/parking-spot").header("X-Client-Id", "reader"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].licensePlateCar", contains("RPL0001")));
+    }
+
+    private void awaitCreated(String trackingId) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String ingestionStatus = mvc.perform(get("/parking-spot/ingestion/" + trackingId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            if (JsonPath.read(ingestionStatus, "$.status").equals("CREATED")) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Registration " + trackingId + " was not written");
+    }
+}
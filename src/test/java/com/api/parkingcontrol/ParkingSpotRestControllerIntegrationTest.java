@@ -1,9 +1,19 @@
 package com.api.parkingcontrol;
 
+import com.api.parkingcontrol.dtos.ParkingSpotBatchDTO;
 import com.api.parkingcontrol.dtos.ParkingSpotDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotPageDTO;
+import com.api.parkingcontrol.dtos.ParkingSpotResponseDTO;
 import com.api.parkingcontrol.entities.ParkingSpot;
 import com.api.parkingcontrol.repositories.ParkingSpotRepository;
+import com.api.parkingcontrol.services.ParkingSpotCache;
+import com.api.parkingcontrol.services.ParkingSpotChangeFeed;
+import com.api.parkingcontrol.services.ParkingSpotOccupancy;
+import com.api.parkingcontrol.services.ParkingSpotPlateIndex;
+import com.api.parkingcontrol.services.ParkingSpotService;
+import com.api.parkingcontrol.services.exceptions.ObjectConflictException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,11 +25,14 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -37,9 +50,24 @@ public class ParkingSpotRestControllerIntegrationTest {
 
     @Autowired ParkingSpotRepository parkingSpotRepository;
 
+    @Autowired ParkingSpotService parkingSpotService;
+
+    private static final int CONCURRENT_SAVES = 8;
+
+    @Autowired ParkingSpotCache parkingSpotCache;
+
+    @Autowired ParkingSpotOccupancy parkingSpotOccupancy;
+
+    @Autowired ParkingSpotPlateIndex parkingSpotPlateIndex;
+
+    @Autowired ParkingSpotChangeFeed parkingSpotChangeFeed;
+
     @After
     public void tearDown() {
         parkingSpotRepository.deleteAll();
+        parkingSpotCache.invalidateAll();
+        parkingSpotOccupancy.rebuild();
+        parkingSpotPlateIndex.rebuild();
     }
 
     @Test
@@ -59,6 +87,80 @@ public class ParkingSpotRestControllerIntegrationTest {
         assertThat(allParkingSpot).extracting(ParkingSpot::getParkingSpotNumber).isEqualTo(List.of("2058", "2057"));
     }
 
+    @Test
+    public void givenParkingSpots_whenGetParkingSpotsWithAcceptHeaders_thenPageShapeFollowsTheMediaType() throws Exception {
+        createTestParkingSpot(new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8"));
+
+        mvc.perform(get("/parking-spot"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.totalElements", is(1)))
+            .andExpect(jsonPath("$.pageable").exists());
+        mvc.perform(get("/parking-spot").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements", is(1)));
+        mvc.perform(get("/parking-spot").accept(ParkingSpotPageDTO.MEDIA_TYPE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(ParkingSpotPageDTO.MEDIA_TYPE))
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.page.totalElements", is(1)))
+            .andExpect(jsonPath("$.pageable").doesNotExist());
+    }
+
+    @Test
+    public void givenConcurrentInserts_whenGetParkingSpotsByCursor_thenPagesAreStable() throws Exception {
+        LocalDateTime baseDate = LocalDateTime.of(2023, 6, 1, 12, 0);
+        Set<String> originalIds = new HashSet<>();
+        for (int i = 0; i < 25; i++) {
+            var parkingSpotDTO = new ParkingSpotDTO("1" + i, "AAA" + (1000 + i), "Audi", "Q5", "Black", "Test", "1" + i, "1");
+            originalIds.add(createTestParkingSpot(parkingSpotDTO, baseDate.plusMinutes(i % 5)).getId().toString());
+        }
+
+        // Rows registered before the cursor would shift an offset page and duplicate rows across pages.
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> inserts = executor.submit(() -> {
+            for (int i = 0; i < 25; i++) {
+                var parkingSpotDTO = new ParkingSpotDTO("2" + i, "BBB" + (1000 + i), "Audi", "Q5", "Black", "Test", "2" + i, "2");
+                createTestParkingSpot(parkingSpotDTO, baseDate.minusMinutes(i + 1));
+            }
+        });
+
+        List<String> seenIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/parking-spot/cursor").param("sort", "registrationDate").param("size", "7");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mvc.perform(request.contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            seenIds.addAll(JsonPath.read(body, "$.content[*].id"));
+            cursor = JsonPath.read(body, "$.nextCursor");
+        } while (cursor != null);
+        inserts.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertThat(seenIds).doesNotHaveDuplicates();
+        assertThat(seenIds).containsAll(originalIds);
+    }
+
+    @Test
+    public void givenInvalidCursor_whenGetParkingSpotsByCursor_thenStatus400() throws Exception {
+        mvc.perform(get("/parking-spot/cursor").param("cursor", "not-a-cursor").contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void givenTamperedRegistrationDateCursor_whenGetParkingSpotsByCursor_thenStatus400() throws Exception {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            ("REGISTRATION_DATE|ASC|" + UUID.randomUUID() + "|2023-13-45T99:00").getBytes(StandardCharsets.UTF_8));
+        mvc.perform(get("/parking-spot/cursor").param("sort", "registrationDate").param("cursor", cursor))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.status", is(400)));
+    }
+
     @Test
     public void givenParkingSpotId_whenGetParkingSpot_thenStatus200() throws Exception {
         var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
@@ -73,6 +175,269 @@ public class ParkingSpotRestControllerIntegrationTest {
         assertThat(allParkingSpot).hasSize(1);
     }
 
+    @Test
+    public void givenCachedParkingSpot_whenUpdateParkingSpot_thenGetReturnsUpdatedParkingSpot() throws Exception {
+        var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
+        ParkingSpot parkingSpotEntity = createTestParkingSpot(parkingSpotDTO);
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get("/parking-spot/" + parkingSpotEntity.getId()).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.parkingSpotNumber", is("2058")));
+        }
+        assertThat(parkingSpotCache.existsByLicensePlateCar("RRS8562")).isTrue();
+
+        parkingSpotDTO.setParkingSpotNumber("2057");
+        parkingSpotDTO.setLicensePlateCar("RRS8561");
+        String requestJson = new ObjectMapper().writeValueAsString(parkingSpotDTO);
+        mvc.perform(put("/parking-spot/" + parkingSpotEntity.getId()).contentType(MediaType.APPLICATION_JSON).content(requestJson))
+            .andExpect(status().isOk());
+
+        mvc.perform(get("/parking-spot/" + parkingSpotEntity.getId()).contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.parkingSpotNumber", is("2057")));
+        assertThat(parkingSpotCache.existsByLicensePlateCar("RRS8562")).isFalse();
+        mvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:parkingSpotById", "result:hit"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(1.0)));
+    }
+
+    @Test
+    public void givenSeededParkingSpots_whenParkingSpotsChange_thenOccupancyIsUpdated() throws Exception {
+        ParkingSpot deleted = createTestParkingSpot(new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8"),
+            LocalDateTime.of(2023, 5, 1, 10, 0));
+        createTestParkingSpot(new ParkingSpotDTO("2059", "RRS8563", "Audi", "Q5", "Black", "Test", "266", "8"),
+            LocalDateTime.of(2023, 5, 1, 11, 0));
+        parkingSpotOccupancy.rebuild();
+
+        mvc.perform(get("/parking-spot/occupancy").contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total", is(2)))
+            .andExpect(jsonPath("$.blocks.8", is(2)))
+            .andExpect(jsonPath("$.apartments.8.265", is(1)))
+            .andExpect(jsonPath("$.registrationsPerDay.2023-05-01", is(2)));
+
+        var parkingSpotDTO = new ParkingSpotDTO("2060", "RRS8564", "Audi", "Q5", "Black", "Test", "265", "9");
+        String id = JsonPath.read(mvc.perform(post("/parking-spot").contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString(), "$.id");
+        parkingSpotDTO.setApartment("267");
+        mvc.perform(put("/parking-spot/" + id).contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isOk());
+        mvc.perform(delete("/parking-spot/" + deleted.getId()))
+            .andExpect(status().isNoContent());
+
+        mvc.perform(get("/parking-spot/occupancy").contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total", is(2)))
+            .andExpect(jsonPath("$.blocks.8", is(1)))
+            .andExpect(jsonPath("$.blocks.9", is(1)))
+            .andExpect(jsonPath("$.apartments.8", not(hasKey("265"))))
+            .andExpect(jsonPath("$.apartments.8.266", is(1)))
+            .andExpect(jsonPath("$.apartments.9.267", is(1)))
+            .andExpect(jsonPath("$.registrationsPerDay.2023-05-01", is(1)));
+    }
+
+    @Test
+    public void givenSameApartmentInTwoBlocks_whenGetOccupancy_thenApartmentsAreCountedPerBlock() throws Exception {
+        createTestParkingSpot(new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8"));
+        createTestParkingSpot(new ParkingSpotDTO("2059", "RRS8563", "Audi", "Q5", "Black", "Test", "265", "9"));
+        parkingSpotOccupancy.rebuild();
+
+        mvc.perform(get("/parking-spot/occupancy"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.apartments.8.265", is(1)))
+            .andExpect(jsonPath("$.apartments.9.265", is(1)));
+
+        var parkingSpotDTO = new ParkingSpotDTO("2060", "RRS8564", "Audi", "Q5", "Black", "Test", "265", "10");
+        mvc.perform(post("/parking-spot").contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isCreated());
+
+        mvc.perform(get("/parking-spot/occupancy"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.apartments.8.265", is(1)))
+            .andExpect(jsonPath("$.apartments.9.265", is(1)))
+            .andExpect(jsonPath("$.apartments.10.265", is(1)));
+    }
+
+    @Test
+    public void givenParkingSpots_whenSearchByLicensePlateCar_thenReturnMatchingParkingSpots() throws Exception {
+        createTestParkingSpot(new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8"));
+        createTestParkingSpot(new ParkingSpotDTO("2059", "RRS1856", "Audi", "Q5", "Black", "Test", "266", "8"));
+        createTestParkingSpot(new ParkingSpotDTO("2060", "ABC8561", "Audi", "Q5", "Black", "Test", "267", "8"));
+        parkingSpotPlateIndex.rebuild();
+        assertThat(parkingSpotPlateIndex.size()).isEqualTo(3);
+
+        mvc.perform(get("/parking-spot/search").param("licensePlateCar", "rrs"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].licensePlateCar", contains("RRS1856", "RRS8562")));
+        mvc.perform(get("/parking-spot/search").param("licensePlateCar", "856").param("match", "CONTAINS").param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].licensePlateCar", contains("ABC8561", "RRS1856")));
+
+        var parkingSpotDTO = new ParkingSpotDTO("2061", "RRS0001", "Audi", "Q5", "Black", "Test", "268", "8");
+        mvc.perform(post("/parking-spot").contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isCreated());
+        mvc.perform(get("/parking-spot/search").param("licensePlateCar", "RRS").param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].licensePlateCar", contains("RRS0001")));
+    }
+
+    @Test
+    public void givenLowerCasePlate_whenSearchByLicensePlateCar_thenPlateIsStoredInUpperCaseAndFound() throws Exception {
+        var parkingSpotDTO = new ParkingSpotDTO("2058", "rrs8562", "Audi", "Q5", "Black", "Test", "265", "8");
+        mvc.perform(post("/parking-spot").contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.licensePlateCar", is("RRS8562")));
+
+        mvc.perform(get("/parking-spot/search").param("licensePlateCar", "rrs"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].licensePlateCar", contains("RRS8562")));
+        mvc.perform(get("/parking-spot/search").param("licensePlateCar", "s856").param("match", "CONTAINS"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].licensePlateCar", contains("RRS8562")));
+
+        // Plates differing only in case are the same plate
+        parkingSpotDTO = new ParkingSpotDTO("2059", "Rrs8562", "Audi", "Q5", "Black", "Test", "266", "8");
+        mvc.perform(post("/parking-spot").contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void givenParkingSpots_whenExportParkingSpots_thenStreamEveryParkingSpot() throws Exception {
+        ParkingSpot first = createTestParkingSpot(new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test, Jr.", "265", "8"),
+            LocalDateTime.of(2023, 5, 1, 10, 0));
+        createTestParkingSpot(new ParkingSpotDTO("2059", "RRS8563", "Audi", "Q5", "Black", "Test", "266", "8"));
+
+        MvcResult ndjsonResult = mvc.perform(get("/parking-spot/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String[] lines = mvc.perform(asyncDispatch(ndjsonResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines).anySatisfy(line -> assertThat(line)
+            .contains("\"id\":\"" + first.getId() + "\"")
+            .contains("\"registrationDate\":\"2023-05-01T10:00:00Z\""));
+
+        MvcResult csvResult = mvc.perform(get("/parking-spot/export").param("format", "CSV"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String csv = mvc.perform(asyncDispatch(csvResult))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Disposition", containsString("parking-spots.csv")))
+            .andReturn().getResponse().getContentAsString();
+        assertThat(csv.split("\r\n")).hasSize(3);
+        assertThat(csv).startsWith("id,parkingSpotNumber,licensePlateCar,")
+            .contains(first.getId() + ",2058,RRS8562,Audi,Q5,Black,2023-05-01T10:00:00Z,\"Test, Jr.\",265,8");
+    }
+
+    @Test
+    public void givenSubscriber_whenParkingSpotsChange_thenChangesArePushedAndResumable() throws Exception {
+        long since = parkingSpotChangeFeed.lastSequence();
+        MvcResult live = mvc.perform(get("/parking-spot/changes").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
+        ParkingSpotResponseDTO parkingSpotEntity = parkingSpotService.save(parkingSpotDTO);
+        parkingSpotDTO.setColorCar("White");
+        parkingSpotService.update(parkingSpotEntity.getId(), parkingSpotDTO, null);
+        parkingSpotService.delete(parkingSpotEntity.getId());
+
+        String events = awaitContent(live, "event:deleted");
+        assertThat(events.indexOf("event:created")).isLessThan(events.indexOf("event:updated"));
+        assertThat(events).contains("\"colorCar\":\"White\"").contains("\"id\":\"" + parkingSpotEntity.getId() + "\"");
+
+        // A client that only saw the creation gets the rest replayed, starting after the id it sends back
+        String createdId = events.lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3);
+        MvcResult resumed = mvc.perform(get("/parking-spot/changes").header("Last-Event-ID", createdId))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String replayed = awaitContent(resumed, "event:deleted");
+        assertThat(replayed).doesNotContain("event:created").contains("event:updated");
+        MvcResult bySequence = mvc.perform(get("/parking-spot/changes").param("since", String.valueOf(since)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        assertThat(awaitContent(bySequence, "event:deleted")).contains("event:created");
+
+        // Ids from another epoch cannot be resumed
+        MvcResult stale = mvc.perform(get("/parking-spot/changes").header("Last-Event-ID", "0:1"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        assertThat(awaitContent(stale, "event:reset")).doesNotContain("event:created");
+    }
+
+    @Test
+    public void givenCurrentETag_whenGetParkingSpotWithIfNoneMatch_thenStatus304() throws Exception {
+        var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
+        ParkingSpot parkingSpotEntity = createTestParkingSpot(parkingSpotDTO);
+
+        String eTag = mvc.perform(get("/parking-spot/" + parkingSpotEntity.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"0\""))
+            .andExpect(jsonPath("$.version", is(0)))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/parking-spot/" + parkingSpotEntity.getId()).header("If-None-Match", eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    public void givenStaleETag_whenUpdateParkingSpotWithIfMatch_thenStatus412() throws Exception {
+        var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
+        ParkingSpot parkingSpotEntity = createTestParkingSpot(parkingSpotDTO);
+
+        parkingSpotDTO.setColorCar("White");
+        mvc.perform(put("/parking-spot/" + parkingSpotEntity.getId()).header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1\""));
+
+        parkingSpotDTO.setColorCar("Red");
+        mvc.perform(put("/parking-spot/" + parkingSpotEntity.getId()).header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(parkingSpotRepository.findById(parkingSpotEntity.getId()).get().getColorCar()).isEqualTo("White");
+    }
+
+    @Test
+    public void givenETagList_whenUpdateParkingSpotWithIfMatch_thenAnyStrongMatchIsAccepted() throws Exception {
+        var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
+        ParkingSpot parkingSpotEntity = createTestParkingSpot(parkingSpotDTO);
+        parkingSpotDTO.setColorCar("White");
+        String content = new ObjectMapper().writeValueAsString(parkingSpotDTO);
+
+        mvc.perform(put("/parking-spot/" + parkingSpotEntity.getId()).header("If-Match", "W/\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(content))
+            .andExpect(status().isPreconditionFailed());
+        mvc.perform(put("/parking-spot/" + parkingSpotEntity.getId()).header("If-Match", "\"5\", W/\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(content))
+            .andExpect(status().isPreconditionFailed());
+        mvc.perform(put("/parking-spot/" + parkingSpotEntity.getId()).header("If-Match", "\"5\", \"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(content))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1\""));
+        mvc.perform(put("/parking-spot/" + parkingSpotEntity.getId()).header("If-Match", "\"0\",\"2\"")
+                .contentType(MediaType.APPLICATION_JSON).content(content))
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(jsonPath("$.message", is("Parking Spot " + parkingSpotEntity.getId() + " is no longer at version 0 or 2")));
+        parkingSpotDTO.setColorCar("Red");
+        content = new ObjectMapper().writeValueAsString(parkingSpotDTO);
+        mvc.perform(put("/parking-spot/" + parkingSpotEntity.getId()).header("If-Match", "*")
+                .contentType(MediaType.APPLICATION_JSON).content(content))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"2\""));
+        mvc.perform(put("/parking-spot/" + UUID.randomUUID()).header("If-Match", "*")
+                .contentType(MediaType.APPLICATION_JSON).content(content))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     public void givenNonExistingParkingSpotId_whenGetParkingSpot_thenStatus404() throws Exception {
         mvc.perform(get("/parking-spot/" + UUID.randomUUID()).contentType(MediaType.APPLICATION_JSON))
@@ -81,6 +446,23 @@ public class ParkingSpotRestControllerIntegrationTest {
             .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    public void givenNotFoundRequest_whenGetMetrics_thenErrorAndLatencyAreRecorded() throws Exception {
+        mvc.perform(get("/parking-spot/" + UUID.randomUUID()).contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound());
+
+        mvc.perform(get("/actuator/metrics/parking.spot.errors").param("tag", "status:404"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(1.0)));
+        mvc.perform(get("/actuator/metrics/http.server.requests").param("tag", "uri:/parking-spot/{id}", "status:404"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.measurements[?(@.statistic == 'COUNT')].value", hasItem(greaterThanOrEqualTo(1.0))));
+        mvc.perform(get("/actuator/metrics/spring.data.repository.invocations").param("tag", "method:findResponseById"))
+            .andExpect(status().isOk());
+        mvc.perform(get("/actuator/metrics/hikaricp.connections.acquire"))
+            .andExpect(status().isOk());
+    }
+
     @Test
     public void givenValidInput_whenCreateNewParkingSpot_thenCreateParkingSpot() throws Exception {
         var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
@@ -138,6 +520,38 @@ public class ParkingSpotRestControllerIntegrationTest {
             .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    public void givenBatchWithDuplicates_whenCreateParkingSpotBatch_thenReturnResultPerItem() throws Exception {
+        createTestParkingSpot(new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8"));
+        var parkingSpotBatchDTO = new ParkingSpotBatchDTO(List.of(
+            new ParkingSpotDTO("2057", "RRS8561", "Audi", "Q5", "Black", "Test", "264", "7"),
+            new ParkingSpotDTO("2056", "RRS8561", "Audi", "Q5", "Black", "Test", "263", "7"),
+            new ParkingSpotDTO("2055", "RRS8560", "Audi", "Q5", "Black", "Test", "265", "8"),
+            new ParkingSpotDTO("2054", "RRS8559", "Audi", "Q5", "Black", "Test", "262", "7")
+        ));
+        String requestJson = new ObjectMapper().writeValueAsString(parkingSpotBatchDTO);
+        mvc.perform(post("/parking-spot/batch").contentType(MediaType.APPLICATION_JSON).content(requestJson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(equalTo(4))))
+            .andExpect(jsonPath("$[0].status", is("CREATED")))
+            .andExpect(jsonPath("$[1].status", is("CONFLICT")))
+            .andExpect(jsonPath("$[1].message", is("License Plate Car RRS8561 is already in use")))
+            .andExpect(jsonPath("$[2].status", is("CONFLICT")))
+            .andExpect(jsonPath("$[2].message", is("Parking Spot already registered for apartment 265 and block 8")))
+            .andExpect(jsonPath("$[3].status", is("CREATED")));
+
+        List<ParkingSpot> allParkingSpot = parkingSpotRepository.findAll();
+        assertThat(allParkingSpot).extracting(ParkingSpot::getParkingSpotNumber).containsExactlyInAnyOrder("2058", "2057", "2054");
+    }
+
+    @Test
+    public void givenBatchWithInvalidItem_whenCreateParkingSpotBatch_thenStatus400() throws Exception {
+        var parkingSpotBatchDTO = new ParkingSpotBatchDTO(List.of(new ParkingSpotDTO("", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8")));
+        String requestJson = new ObjectMapper().writeValueAsString(parkingSpotBatchDTO);
+        mvc.perform(post("/parking-spot/batch").contentType(MediaType.APPLICATION_JSON).content(requestJson))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void givenParkingSpotId_whenDeleteParkingSpot_thenDeleteParkingSpot() throws Exception {
         var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
@@ -201,10 +615,71 @@ public class ParkingSpotRestControllerIntegrationTest {
             .andExpect(status().isBadRequest());
     }
 
+    @Test
+    public void givenConcurrentSavesWithSameLicensePlateCar_whenSaveParkingSpot_thenOnlyOneIsCreated() throws Exception {
+        List<Throwable> failures = runConcurrentSaves(i -> new ParkingSpotDTO("30" + i, "RRS8562", "Audi", "Q5", "Black", "Test", "30" + i, "8"));
+
+        assertThat(failures).hasSize(CONCURRENT_SAVES - 1);
+        assertThat(failures).allSatisfy(exc -> assertThat(exc)
+            .isInstanceOf(ObjectConflictException.class)
+            .hasMessage("License Plate Car RRS8562 is already in use"));
+        assertThat(parkingSpotRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    public void givenConcurrentSavesWithSameParkingSpotNumber_whenSaveParkingSpot_thenOnlyOneIsCreated() throws Exception {
+        List<Throwable> failures = runConcurrentSaves(i -> new ParkingSpotDTO("2058", "RRS850" + i, "Audi", "Q5", "Black", "Test", "30" + i, "8"));
+
+        assertThat(failures).hasSize(CONCURRENT_SAVES - 1);
+        assertThat(failures).allSatisfy(exc -> assertThat(exc)
+            .isInstanceOf(ObjectConflictException.class)
+            .hasMessage("Parking Spot 2058 is already in use"));
+        assertThat(parkingSpotRepository.findAll()).hasSize(1);
+    }
+
+    private List<Throwable> runConcurrentSaves(IntFunction<ParkingSpotDTO> parkingSpotDTOFactory) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_SAVES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ParkingSpotResponseDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_SAVES; i++) {
+            ParkingSpotDTO parkingSpotDTO = parkingSpotDTOFactory.apply(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return parkingSpotService.save(parkingSpotDTO);
+            }));
+        }
+        start.countDown();
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<ParkingSpotResponseDTO> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException exc) {
+                failures.add(exc.getCause());
+            }
+        }
+        executor.shutdown();
+        return failures;
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
     private ParkingSpot createTestParkingSpot(ParkingSpotDTO parkingSpotDTO) {
+        return createTestParkingSpot(parkingSpotDTO, LocalDateTime.now(ZoneId.of("UTC")));
+    }
+
+    private ParkingSpot createTestParkingSpot(ParkingSpotDTO parkingSpotDTO, LocalDateTime registrationDate) {
         var parkingSpotEntity = new ParkingSpot();
         BeanUtils.copyProperties(parkingSpotDTO, parkingSpotEntity);
-        parkingSpotEntity.setRegistrationDate(LocalDateTime.now(ZoneId.of("UTC")));
+        parkingSpotEntity.setRegistrationDate(registrationDate);
         return parkingSpotRepository.saveAndFlush(parkingSpotEntity);
     }
 }
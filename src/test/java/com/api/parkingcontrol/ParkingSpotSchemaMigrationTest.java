@@ -0,0 +1,94 @@
+package com.api.parkingcontrol;
+
+import com.api.parkingcontrol.configs.ParkingSpotSchemaNormalization;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Migrates the table as the former ddl-auto=update created it: hash-named unique constraints, no apartment/block
+// constraint and no version column
+public class ParkingSpotSchemaMigrationTest {
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:legacy-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table parking_spot (id uuid not null, apartment varchar(30) not null, block varchar(30) not null, "
+            + "brand_car varchar(70) not null, color_car varchar(70) not null, license_plate_car varchar(7) not null, "
+            + "model_car varchar(70) not null, parking_spot_number varchar(10) not null, registration_date timestamp(6) not null, "
+            + "responsible_name varchar(130) not null, primary key (id))");
+        jdbcTemplate.execute("alter table parking_spot add constraint UK_h5l1qq8pq2flrsyak7etra9ad unique (license_plate_car)");
+        jdbcTemplate.execute("alter table parking_spot add constraint UK_3ql6r4i0a9h7jfq0cpq2s9mt8 unique (parking_spot_number)");
+        insert("2058", "RRS8562", "265", "8");
+    }
+
+    @Test
+    public void givenDdlAutoSchema_whenMigrate_thenConstraintsAreNamedAndVersionIsAdded() {
+        migrate();
+
+        assertThat(jdbcTemplate.queryForList("select lower(constraint_name) from information_schema.table_constraints "
+            + "where table_name = 'PARKING_SPOT' and constraint_type = 'UNIQUE'", String.class))
+            .containsExactlyInAnyOrder("uk_parking_spot_parking_spot_number", "uk_parking_spot_license_plate_car", "uk_parking_spot_apartment_block");
+        assertThat(jdbcTemplate.queryForObject("select version from parking_spot", Long.class)).isZero();
+        assertThatThrownBy(() -> insert("2059", "RRS8563", "265", "8"))
+            .hasMessageContaining("UK_PARKING_SPOT_APARTMENT_BLOCK");
+    }
+
+    @Test
+    public void givenDdlAutoSchema_whenMigrate_thenUniqueConstraintsOnlyCoverLiveRows() {
+        migrate();
+
+        assertThat(jdbcTemplate.queryForList("select lower(column_name) from information_schema.key_column_usage "
+            + "where constraint_name = 'UK_PARKING_SPOT_LICENSE_PLATE_CAR' order by ordinal_position", String.class))
+            .containsExactly("license_plate_car", "active");
+        jdbcTemplate.update("update parking_spot set deleted_at = current_timestamp, active = null");
+        insert("2058", "RRS8562", "265", "8");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from parking_spot", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    public void givenLowerCasePlate_whenMigrate_thenPlateIsUpperCased() {
+        insert("2059", "abc1234", "266", "8");
+
+        migrate();
+
+        assertThat(jdbcTemplate.queryForList("select license_plate_car from parking_spot", String.class))
+            .containsExactlyInAnyOrder("RRS8562", "ABC1234");
+    }
+
+    @Test
+    public void givenDuplicateApartmentAndBlock_whenMigrate_thenFailsWithTheDuplicate() {
+        insert("2059", "RRS8563", "265", "8");
+
+        assertThatThrownBy(this::migrate)
+            .isInstanceOf(FlywayException.class)
+            .hasStackTraceContaining("[265, 8] is used by more than one parking spot");
+    }
+
+    private void migrate() {
+        Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+            .baselineOnMigrate(true)
+            .baselineVersion("1")
+            .javaMigrations(new ParkingSpotSchemaNormalization())
+            .load()
+            .migrate();
+    }
+
+    private void insert(String parkingSpotNumber, String licensePlateCar, String apartment, String block) {
+        jdbcTemplate.update("insert into parking_spot (id, parking_spot_number, license_plate_car, brand_car, model_car, color_car, "
+            + "registration_date, responsible_name, apartment, block) values (?, ?, ?, 'Audi', 'Q5', 'Black', current_timestamp, 'Test', ?, ?)",
+            UUID.randomUUID(), parkingSpotNumber, licensePlateCar, apartment, block);
+    }
+}
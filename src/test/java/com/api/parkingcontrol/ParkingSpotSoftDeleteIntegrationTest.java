@@ -0,0 +1,95 @@
+package com.api.parkingcontrol;
+
+import com.api.parkingcontrol.dtos.ParkingSpotDTO;
+import com.api.parkingcontrol.services.ParkingSpotCache;
+import com.api.parkingcontrol.services.ParkingSpotTombstoneCompaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, classes = ParkingControlApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-integrationtest.properties", properties = {
+    "spring.datasource.url=jdbc:h2:mem:softdelete;DB_CLOSE_DELAY=-1",
+    "parking-control.soft-delete.enabled=true",
+    "parking-control.soft-delete.retention=0s",
+    "parking-control.soft-delete.compaction-interval=PT1H",
+    "parking-control.soft-delete.compaction-batch-size=2"})
+public class ParkingSpotSoftDeleteIntegrationTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Autowired ParkingSpotCache parkingSpotCache;
+
+    @Autowired ParkingSpotTombstoneCompaction parkingSpotTombstoneCompaction;
+
+    @After
+    public void tearDown() {
+        // Tombstones are invisible to the repository, so the table is cleared directly
+        jdbcTemplate.update("delete from parking_spot");
+        parkingSpotCache.invalidateAll();
+    }
+
+    @Test
+    public void givenDeletedParkingSpot_whenRegisterSameValues_thenTombstoneIsHiddenAndDoesNotConflict() throws Exception {
+        var parkingSpotDTO = new ParkingSpotDTO("2058", "RRS8562", "Audi", "Q5", "Black", "Test", "265", "8");
+        String id = register(parkingSpotDTO);
+
+        mvc.perform(delete("/parking-spot/" + id))
+            .andExpect(status().isNoContent());
+        mvc.perform(delete("/parking-spot/" + id))
+            .andExpect(status().isNotFound());
+        mvc.perform(get("/parking-spot/" + id))
+            .andExpect(status().isNotFound());
+        mvc.perform(put("/parking-spot/" + id).contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isNotFound());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from parking_spot where deleted_at is not null and active is null", Integer.class))
+            .isEqualTo(1);
+
+        String reregistered = register(parkingSpotDTO);
+        mvc.perform(get("/parking-spot"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].id", contains(reregistered)))
+            .andExpect(jsonPath("$.totalElements", is(1)));
+        mvc.perform(post("/parking-spot").contentType(MediaType.APPLICATION_JSON).content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void givenTombstones_whenCompact_thenRemovesThemInBatches() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            String id = register(new ParkingSpotDTO("10" + i, "CMP000" + i, "Audi", "Q5", "Black", "Test", "10" + i, "1"));
+            mvc.perform(delete("/parking-spot/" + id))
+                .andExpect(status().isNoContent());
+        }
+        String live = register(new ParkingSpotDTO("200", "CMP0200", "Audi", "Q5", "Black", "Test", "200", "2"));
+
+        assertThat(parkingSpotTombstoneCompaction.compact()).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForList("select cast(id as varchar) from parking_spot", String.class)).containsExactly(live);
+    }
+
+    private String register(ParkingSpotDTO parkingSpotDTO) throws Exception {
+        return JsonPath.read(mvc.perform(post("/parking-spot").contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(parkingSpotDTO)))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString(), "$.id");
+    }
+}